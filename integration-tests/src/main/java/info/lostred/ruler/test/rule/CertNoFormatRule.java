@@ -0,0 +1,17 @@
+package info.lostred.ruler.test.rule;
+
+import info.lostred.ruler.annotation.Rule;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.rule.AbstractRule;
+
+@Rule(ruleCode = "身份证号码格式",
+        businessType = "person",
+        description = "身份证号码只能由数字组成，最后一位可以为X",
+        parameterExp = "certNo",
+        conditionExp = "certNo != null",
+        predicateExp = "!certNo.matches('[0-9]*[0-9Xx]')")
+public class CertNoFormatRule extends AbstractRule {
+    public CertNoFormatRule(RuleDefinition ruleDefinition) {
+        super(ruleDefinition);
+    }
+}
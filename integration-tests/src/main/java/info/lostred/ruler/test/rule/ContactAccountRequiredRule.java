@@ -0,0 +1,18 @@
+package info.lostred.ruler.test.rule;
+
+import info.lostred.ruler.annotation.Rule;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.rule.AbstractRule;
+
+@Rule(ruleCode = "联系方式账号必填",
+        businessType = "person",
+        description = "联系方式中的账号必须填写",
+        order = 1,
+        parameterExp = "contacts[#i].account",
+        conditionExp = "true",
+        predicateExp = "contacts[#i].account==null||contacts[#i].account.isEmpty()")
+public class ContactAccountRequiredRule extends AbstractRule {
+    public ContactAccountRequiredRule(RuleDefinition ruleDefinition) {
+        super(ruleDefinition);
+    }
+}
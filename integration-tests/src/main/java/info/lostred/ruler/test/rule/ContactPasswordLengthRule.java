@@ -0,0 +1,18 @@
+package info.lostred.ruler.test.rule;
+
+import info.lostred.ruler.annotation.Rule;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.rule.AbstractRule;
+
+@Rule(ruleCode = "联系方式密码长度",
+        businessType = "person",
+        description = "联系方式中的密码长度不能超过16位",
+        order = -1,
+        parameterExp = "contacts[#i].password",
+        conditionExp = "contacts[#i].password!=null",
+        predicateExp = "contacts[#i].password.length()>16")
+public class ContactPasswordLengthRule extends AbstractRule {
+    public ContactPasswordLengthRule(RuleDefinition ruleDefinition) {
+        super(ruleDefinition);
+    }
+}
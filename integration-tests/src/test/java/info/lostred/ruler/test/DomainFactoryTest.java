@@ -2,11 +2,16 @@ package info.lostred.ruler.test;
 
 import info.lostred.ruler.domain.PropertyInfo;
 import info.lostred.ruler.factory.DomainFactory;
+import info.lostred.ruler.util.PackageScanUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 public class DomainFactoryTest {
@@ -20,4 +25,16 @@ public class DomainFactoryTest {
             System.out.println(propertyInfo.getPropertyType() + " " + propertyInfo.getPropertyName() + " " + propertyInfo.isNested());
         }
     }
+
+    @Test
+    void indexTest() {
+        assertEquals(PackageScanUtils.getClasses("info.lostred.ruler.test.domain"),
+                PackageScanUtils.getDomainClasses("info.lostred.ruler.test.domain"));
+        assertEquals(8, PackageScanUtils.getRuleClasses("info.lostred.ruler.test.rule").size());
+        assertEquals(domainFactory.getAllDomain(), PackageScanUtils.getDomainClasses("info.lostred.ruler.test.domain"));
+        Set<Class<?>> classes = new HashSet<>(PackageScanUtils.getClasses("info.lostred.ruler.test.domain"));
+        classes.addAll(PackageScanUtils.getClasses("info.lostred.ruler.test.rule"));
+        assertEquals(classes, PackageScanUtils.getRuleClasses("info.lostred.ruler.test.rule",
+                "info.lostred.ruler.test.domain"));
+    }
 }
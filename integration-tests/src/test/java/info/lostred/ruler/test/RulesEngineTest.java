@@ -1,22 +1,94 @@
 package info.lostred.ruler.test;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import info.lostred.ruler.actuate.RulerEndpoint;
+import info.lostred.ruler.codec.ResultCodec;
+import info.lostred.ruler.codec.RuleDictionary;
+import info.lostred.ruler.codec.ResultReader;
+import info.lostred.ruler.constant.CompileStatus;
+import info.lostred.ruler.domain.Report;
 import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.engine.AbstractRulesEngine;
+import info.lostred.ruler.expression.CachingExpressionParser;
+import info.lostred.ruler.expression.CompilableExpression;
+import info.lostred.ruler.expression.PreparedExpressions;
+import info.lostred.ruler.engine.CompleteRulesEngine;
+import info.lostred.ruler.engine.DomainPropertyAccessor;
+import info.lostred.ruler.engine.IncompleteRulesEngine;
+import info.lostred.ruler.engine.ParallelCompleteRulesEngine;
 import info.lostred.ruler.engine.RulesEngine;
+import info.lostred.ruler.factory.DefaultRuleFactory;
+import info.lostred.ruler.factory.DomainFactory;
+import info.lostred.ruler.interceptor.RuleInterceptor;
+import info.lostred.ruler.json.JsonArrayValidator;
+import info.lostred.ruler.factory.RuleFactory;
+import info.lostred.ruler.reactive.RulesProcessor;
 import info.lostred.ruler.factory.RulesEngineFactory;
+import info.lostred.ruler.rule.AbstractRule;
 import info.lostred.ruler.test.domain.Area;
 import info.lostred.ruler.test.domain.Contact;
 import info.lostred.ruler.test.domain.Person;
+import info.lostred.ruler.test.rule.CertNoLengthRule;
+import info.lostred.ruler.util.SpELUtils;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class RulesEngineTest {
@@ -26,6 +98,18 @@ class RulesEngineTest {
     RulesEngineFactory rulesEngineFactory;
     @Autowired
     ObjectMapper objectMapper;
+    @Autowired
+    RuleFactory ruleFactory;
+    @Autowired
+    BeanResolver beanResolver;
+    @Autowired
+    ExpressionParser parser;
+    @Autowired
+    List<Method> globalFunctions;
+    @Autowired
+    RulerEndpoint rulerEndpoint;
+    @Autowired
+    DomainFactory domainFactory;
 
     String toJson(Object object) throws JsonProcessingException {
         return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(object);
@@ -63,4 +147,725 @@ class RulesEngineTest {
         long e = System.currentTimeMillis();
         printResult(result, s, e);
     }
+
+    @Test
+    void compileStatusTest() {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        rulesEngine.execute(person);
+        Map<String, CompileStatus> compileStatus = rulesEngine.getCompileStatus();
+        assertEquals(rulesEngine.getRuleDefinitions().size(), compileStatus.size());
+        assertEquals(CompileStatus.COMPILED, compileStatus.get("身份证号码长度"));
+        //不使用规则编译器时，简单规则的SpEL表达式本身应编译成功，
+        //短路的断定表达式需要右侧也执行过才能编译，因此先执行一个各字段都已填写的对象
+        Person filled = new Person();
+        filled.setCertNo("11010119900101123X");
+        filled.setGender("男");
+        filled.setBirthday(person.getBirthday());
+        Area area = new Area();
+        area.setCountry("中国");
+        filled.setArea(area);
+        Contact contact = new Contact();
+        contact.setType("phone");
+        contact.setAccount("13800000000");
+        contact.setPassword("1234");
+        filled.setContacts(Collections.singletonList(contact));
+        RulesEngine interpretedRulesEngine = new CompleteRulesEngine(
+                new DefaultRuleFactory(parser, "info.lostred.ruler.test.rule"), businessType,
+                beanResolver, parser, globalFunctions);
+        interpretedRulesEngine.execute(filled);
+        interpretedRulesEngine.execute(person);
+        Map<String, CompileStatus> spelCompileStatus = interpretedRulesEngine.getCompileStatus();
+        for (String ruleCode : Arrays.asList("身份证号码格式", "身份证号码长度", "生日范围", "地区国家必填",
+                "联系方式类型必填", "联系方式账号必填", "联系方式密码长度")) {
+            assertEquals(CompileStatus.COMPILED, spelCompileStatus.get(ruleCode), ruleCode);
+        }
+        //Bean引用无法编译，继续解释执行
+        assertEquals(CompileStatus.INTERPRETED, spelCompileStatus.get("性别码值"));
+        assertFalse(spelCompileStatus.containsValue(CompileStatus.FAILED));
+    }
+
+    @Test
+    void contextIsolationTest() throws Exception {
+        //先执行的规则检查上一次执行留下的变量，后执行的规则设置变量
+        RuleFactory isolationRuleFactory = new DefaultRuleFactory(parser);
+        isolationRuleFactory.createRule(RuleDefinition.of("变量检查", "isolation", Grade.ILLEGAL, "不应读取到上一次执行的变量",
+                -1, false, true, AbstractRule.class, "certNo", "true",
+                "#leaked != null || #element != null || #i != null"));
+        isolationRuleFactory.createRule(RuleDefinition.of("变量设置", "isolation", Grade.SUSPECTED, "执行中设置变量",
+                1, false, true, AbstractRule.class, "contacts[#i].type", "true",
+                "(#leaked = #element) == null"));
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(isolationRuleFactory, "isolation",
+                beanResolver, parser, globalFunctions);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(rulesEngine.execute(person).getReports().containsKey("变量检查"));
+            assertFalse(rulesEngine.evaluate(person));
+        }
+        for (Result result : rulesEngine.executeBatch(Collections.nCopies(10, person))) {
+            assertFalse(result.getReports().containsKey("变量检查"));
+        }
+        //同一引擎并发执行的结果与顺序执行一致
+        RulesEngine sharedRulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("123456789012345678");
+        other.setArea(new Area());
+        String expected = toJson(sharedRulesEngine.execute(person));
+        String otherExpected = toJson(sharedRulesEngine.execute(other));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Object object = i % 2 == 0 ? person : other;
+                futures.add(executor.submit(() -> toJson(sharedRulesEngine.execute(object))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i % 2 == 0 ? expected : otherExpected, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void forEachElementTest() {
+        //两个规则的数组参数表达式不同，不会合并为规则组，各自读取同一集合
+        RuleFactory elementRuleFactory = new DefaultRuleFactory(parser);
+        elementRuleFactory.createRule(RuleDefinition.of("负数", "elements", Grade.ILLEGAL, "不能为负数",
+                0, false, true, AbstractRule.class, "numbers[#i]", "true",
+                "#element.toString().startsWith('-')"));
+        elementRuleFactory.createRule(RuleDefinition.of("负数(根对象)", "elements", Grade.ILLEGAL, "不能为负数",
+                1, false, true, AbstractRule.class, "#root.numbers[#i]", "true",
+                "#element.toString().startsWith('-')"));
+        RulesEngine rulesEngine = new CompleteRulesEngine(elementRuleFactory, "elements",
+                beanResolver, parser, globalFunctions);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            RulesEngine parallelRulesEngine = new ParallelCompleteRulesEngine(elementRuleFactory, "elements",
+                    beanResolver, parser, globalFunctions, pool);
+            for (RulesEngine engine : Arrays.asList(rulesEngine, parallelRulesEngine)) {
+                List<Supplier<Object>> sources = Arrays.asList(
+                        () -> Arrays.asList(1, -2, 3),
+                        () -> new LinkedList<>(Arrays.asList(1, -2, 3)),
+                        () -> new int[]{1, -2, 3},
+                        () -> Stream.of(1, -2, 3),
+                        () -> Arrays.asList(1, -2, 3).iterator(),
+                        //类型转换器将逗号分隔的字符串转换为数组
+                        () -> "1,-2,3");
+                for (Supplier<Object> source : sources) {
+                    Map<String, Object> object = new HashMap<>();
+                    object.put("numbers", source.get());
+                    Result result = engine.execute(object);
+                    assertEquals(Collections.singleton("numbers[1]"),
+                            result.getReports().get("负数").getErrors().keySet());
+                    assertEquals(Collections.singleton("#root.numbers[1]"),
+                            result.getReports().get("负数(根对象)").getErrors().keySet());
+                    object.put("numbers", source.get());
+                    assertTrue(engine.evaluate(object));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelExecuteTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RulesEngine parallelRulesEngine = new ParallelCompleteRulesEngine(ruleFactory, businessType,
+                    beanResolver, parser, globalFunctions, pool);
+            Result expected = rulesEngine.execute(person);
+            Result actual = parallelRulesEngine.execute(person);
+            assertEquals(toJson(expected), toJson(actual));
+            for (Result batchResult : parallelRulesEngine.executeBatch(Arrays.asList(person, person, person))) {
+                assertEquals(toJson(expected), toJson(batchResult));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void ruleGroupTest() throws JsonProcessingException {
+        AtomicInteger traversals = new AtomicInteger();
+        Person object = new Person();
+        object.setCertNo(person.getCertNo());
+        object.setArea(person.getArea());
+        object.setContacts(new LinkedList<Contact>(person.getContacts()) {
+            @Override
+            public Iterator<Contact> iterator() {
+                traversals.incrementAndGet();
+                return super.iterator();
+            }
+        });
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        IncompleteRulesEngine incompleteRulesEngine = new IncompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        ParallelCompleteRulesEngine parallelRulesEngine = new ParallelCompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions, rulesEngine.getRuleDefinitions().size());
+        try {
+            Result result = rulesEngine.execute(object);
+            assertEquals(1, traversals.getAndSet(0));
+            assertEquals(2, result.getReports().get("联系方式账号必填").getErrors().size());
+            assertEquals(2, result.getReports().get("联系方式类型必填").getErrors().size());
+            assertFalse(result.getReports().containsKey("联系方式密码长度"));
+            //每个分段只有一条规则时，规则组也不会被拆分到多个分段中
+            assertEquals(toJson(result), toJson(parallelRulesEngine.execute(object)));
+            assertEquals(1, traversals.getAndSet(0));
+            //遇到违规即结束的引擎只报告执行计划中第一条违规的规则
+            String first = rulesEngine.getRuleDefinitions().stream()
+                    .map(RuleDefinition::getRuleCode)
+                    .filter(result.getReports()::containsKey)
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+            assertEquals(Collections.singleton(first), incompleteRulesEngine.execute(object).getReports().keySet());
+            assertEquals(1, traversals.getAndSet(0));
+            assertTrue(incompleteRulesEngine.evaluate(object));
+            assertEquals(1, traversals.getAndSet(0));
+        } finally {
+            parallelRulesEngine.shutdown();
+        }
+        //规则组内先执行的规则严重违规后，组内位于其后的规则在之后的元素上不再执行
+        RuleFactory groupRuleFactory = new DefaultRuleFactory(parser);
+        groupRuleFactory.createRule(RuleDefinition.of("类型必填", "group", Grade.ILLEGAL, "类型必须填写",
+                0, false, true, AbstractRule.class, "contacts[#i].type", "true",
+                "contacts[#i].type == null"));
+        groupRuleFactory.createRule(RuleDefinition.of("账号必填", "group", Grade.ILLEGAL, "账号必须填写",
+                1, false, true, AbstractRule.class, "contacts[#i].account", "true",
+                "contacts[#i].account == null"));
+        Contact withoutAccount = new Contact();
+        withoutAccount.setType("phone");
+        Contact withoutType = new Contact();
+        withoutType.setAccount("13800000000");
+        Person grouped = new Person();
+        grouped.setContacts(Arrays.asList(withoutAccount, withoutType, withoutAccount));
+        IncompleteRulesEngine groupRulesEngine = new IncompleteRulesEngine(groupRuleFactory, "group",
+                beanResolver, parser, globalFunctions);
+        AtomicInteger accountJudgements = new AtomicInteger();
+        groupRulesEngine.addInterceptor(new RuleInterceptor() {
+            @Override
+            public void afterJudge(AbstractRule rule, Object object, boolean illegal, long elapsedNanos) {
+                if ("账号必填".equals(rule.getRuleDefinition().getRuleCode())) {
+                    accountJudgements.incrementAndGet();
+                }
+            }
+        });
+        Result incompleteResult = groupRulesEngine.execute(grouped);
+        assertEquals(1, accountJudgements.get());
+        assertEquals(Collections.singleton("类型必填"), incompleteResult.getReports().keySet());
+        assertEquals(Collections.singleton("contacts[1].type"),
+                incompleteResult.getReports().get("类型必填").getErrors().keySet());
+        Result completeResult = new CompleteRulesEngine(groupRuleFactory, "group",
+                beanResolver, parser, globalFunctions).execute(grouped);
+        assertEquals(new HashSet<>(Arrays.asList("类型必填", "账号必填")), completeResult.getReports().keySet());
+    }
+
+    @Test
+    void conditionSlotTest() {
+        AtomicInteger reads = new AtomicInteger();
+        Map<String, Object> object = new HashMap<String, Object>() {
+            @Override
+            public Object get(Object key) {
+                if ("certNo".equals(key)) {
+                    reads.incrementAndGet();
+                }
+                return super.get(key);
+            }
+        };
+        object.put("certNo", "123456789012345678");
+        object.put("area", Collections.singletonMap("country", "中国"));
+        AtomicInteger supports = new AtomicInteger();
+        RuleFactory interpretedRuleFactory = new DefaultRuleFactory(parser, "info.lostred.ruler.test.rule");
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(interpretedRuleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        rulesEngine.addInterceptor(new RuleInterceptor() {
+            @Override
+            public void afterSupports(AbstractRule rule, Object object, boolean supported, long elapsedNanos) {
+                if (rule.getRuleDefinition().getRuleCode().startsWith("身份证号码")) {
+                    supports.incrementAndGet();
+                }
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Grade.QUALIFIED, rulesEngine.execute(object).getGrade());
+            //前置条件"certNo!=null"与"certNo != null"只读取一次，两条规则的断定各读取一次
+            assertEquals(3, reads.getAndSet(0));
+            assertEquals(2, supports.getAndSet(0));
+        }
+        //规范化只去除不影响记号的空白，字符串字面量保持原样
+        assertEquals(SpELUtils.normalize("(certNo!=null)&&(age>1)"),
+                SpELUtils.normalize(" ( certNo != null ) && ( age > 1 ) "));
+        assertEquals(SpELUtils.normalize("gender=='男'"), SpELUtils.normalize("gender == '男'"));
+        assertEquals("a- -1", SpELUtils.normalize("a - -1"));
+        assertEquals("name=='a  b'", SpELUtils.normalize("name == 'a  b'"));
+    }
+
+    @Test
+    void executeBatchTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("123456789012345678");
+        other.setArea(new Area());
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            objects.add(i % 2 == 0 ? person : other);
+        }
+        List<Result> results = rulesEngine.executeBatch(objects);
+        List<Boolean> evaluations = rulesEngine.evaluateBatch(objects);
+        assertEquals(objects.size(), results.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertEquals(toJson(rulesEngine.execute(objects.get(i))), toJson(results.get(i)));
+            assertEquals(rulesEngine.evaluate(objects.get(i)), evaluations.get(i));
+        }
+        List<Result> limited = rulesEngine.executeBatch(Collections.nCopies(1000, person), 1);
+        assertEquals(1000, limited.size());
+        assertTrue(limited.stream().anyMatch(Objects::isNull));
+    }
+
+    @Test
+    void executeAsyncTest() throws Exception {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Result result = rulesEngine.executeAsync(person).get();
+        assertEquals(toJson(rulesEngine.execute(person)), toJson(result));
+        assertEquals(rulesEngine.evaluate(person), rulesEngine.evaluateAsync(person).get());
+        CompleteRulesEngine ownedRulesEngine = new CompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        String threadName = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(),
+                ownedRulesEngine.getExecutor()).get();
+        assertTrue(threadName.startsWith("ruler-" + businessType + "-"));
+        assertEquals(toJson(result), toJson(ownedRulesEngine.executeAsync(person).get()));
+        ownedRulesEngine.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> ownedRulesEngine.executeAsync(person));
+    }
+
+    @Test
+    void processorTest() throws Exception {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("123456789012345678");
+        other.setArea(new Area());
+        List<Person> objects = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            objects.add(i % 2 == 0 ? person : other);
+        }
+        RulesProcessor processor = RulesProcessor.of(rulesEngine, 4, false);
+        Flux.fromIterable(objects).subscribe(processor);
+        List<Result> results = Flux.from(processor).limitRate(3).collectList().block();
+        assertEquals(objects.size(), results.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertEquals(toJson(rulesEngine.execute(objects.get(i))), toJson(results.get(i)));
+        }
+        //非正数的请求由发布循环在onNext返回后以异常通知下游，之后不再发布结果
+        RulesProcessor invalidProcessor = RulesProcessor.of(rulesEngine, 4, false);
+        Flux.fromIterable(objects).subscribe(invalidProcessor);
+        AtomicInteger received = new AtomicInteger();
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        invalidProcessor.subscribe(new Subscriber<Result>() {
+            private Subscription subscription;
+            private boolean inOnNext;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Result result) {
+                received.incrementAndGet();
+                inOnNext = true;
+                subscription.request(0);
+                inOnNext = false;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.complete(inOnNext ? new IllegalStateException("onError inside onNext") : throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                error.complete(null);
+            }
+        });
+        assertTrue(error.get(10, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+        assertEquals(1, received.get());
+    }
+
+    @Test
+    void adaptiveOrderingTest() {
+        IncompleteRulesEngine rulesEngine = new IncompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        rulesEngine.setAdaptiveInterval(10);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Grade.ILLEGAL, rulesEngine.execute(person).getGrade());
+            assertTrue(rulesEngine.evaluate(person));
+        }
+        assertTrue(rulesEngine.getRuleStatistics().values().stream().anyMatch(e -> e.getHits() > 0));
+        //规则组内的规则分别记录，未违规的组内规则不会因为同组规则违规而被记为违规
+        assertEquals(0, rulesEngine.getRuleStatistics().get("联系方式密码长度").getHits());
+        assertTrue(rulesEngine.getRuleStatistics().get("联系方式类型必填").getHits() > 0);
+    }
+
+    @Test
+    void propertyCacheTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        CompleteRulesEngine cachingRulesEngine = new CompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        cachingRulesEngine.setPropertyCacheEnabled(true);
+        assertEquals(toJson(rulesEngine.execute(person)), toJson(cachingRulesEngine.execute(person)));
+        assertEquals(rulesEngine.evaluate(person), cachingRulesEngine.evaluate(person));
+    }
+
+    @Test
+    void preparedExpressionsTest() {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        AbstractRule rule = ruleFactory.getRule("身份证号码长度");
+        rulesEngine.execute(person);
+        PreparedExpressions expressions = rule.prepare(parser);
+        //再次执行时不重新解析
+        rulesEngine.execute(person);
+        assertSame(expressions, rule.prepare(parser));
+        //规则定义的表达式变化后预解析的表达式失效
+        RuleDefinition ruleDefinition = rule.getRuleDefinition();
+        RuleDefinition changed = RuleDefinition.of(ruleDefinition.getRuleCode(), ruleDefinition.getBusinessType(),
+                ruleDefinition.getGrade(), ruleDefinition.getDescription(), ruleDefinition.getOrder(),
+                ruleDefinition.isRequired(), ruleDefinition.isEnabled(), ruleDefinition.getRuleClass(),
+                ruleDefinition.getParameterExp(), ruleDefinition.getConditionExp(), "certNo.length()!=15");
+        assertTrue(expressions.isPreparedFrom(ruleDefinition));
+        assertFalse(expressions.isPreparedFrom(changed));
+        PreparedExpressions changedExpressions = new CertNoLengthRule(changed).prepare(parser);
+        assertNotSame(expressions, changedExpressions);
+        assertEquals("certNo.length()!=15",
+                changedExpressions.getPredicateExpression().getExpression().getExpressionString());
+        //缓存达到容量时淘汰最久未使用的表达式
+        CachingExpressionParser cachingParser = new CachingExpressionParser(new SpelParserConfiguration(), 2);
+        Expression first = cachingParser.parseExpression("1+1");
+        Expression second = cachingParser.parseExpression("2+2");
+        assertSame(first, cachingParser.parseExpression("1+1"));
+        cachingParser.parseExpression("3+3");
+        assertSame(first, cachingParser.parseExpression("1+1"));
+        assertNotSame(second, cachingParser.parseExpression("2+2"));
+    }
+
+    @Test
+    void ruleCompilerTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        RuleFactory interpretedRuleFactory = new DefaultRuleFactory(parser, "info.lostred.ruler.test.rule");
+        RulesEngine interpretedRulesEngine = new CompleteRulesEngine(interpretedRuleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        assertEquals(toJson(interpretedRulesEngine.execute(person)), toJson(rulesEngine.execute(person)));
+        assertEquals(interpretedRulesEngine.evaluate(person), rulesEngine.evaluate(person));
+        assertTrue(ruleFactory.getRule("身份证号码长度").getCompiledRule(person).isComplete());
+        //同一根对象类型的生成类共用一个类加载器
+        assertSame(ruleFactory.getRule("身份证号码长度").getCompiledRule(person).getClass().getClassLoader(),
+                ruleFactory.getRule("地区国家必填").getCompiledRule(person).getClass().getClassLoader());
+    }
+
+    @Test
+    void compilableExpressionTest() {
+        CachingExpressionParser mixedParser = new CachingExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()), 16);
+        Expression original = mixedParser.parseExpression("#value.length()");
+        CompilableExpression expression = new CompilableExpression(original, SpelCompilerMode.MIXED,
+                mixedParser.getInterpreter());
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("value", "abc");
+        assertEquals(3, expression.getValue(context, Integer.class));
+        assertEquals(CompileStatus.COMPILED, expression.getCompileStatus());
+        //编译后的表达式按String执行，传入StringBuilder时执行失败，回退为解释执行
+        context.setVariable("value", new StringBuilder("abcd"));
+        assertEquals(4, expression.getValue(context, Integer.class));
+        assertEquals(CompileStatus.FAILED, expression.getCompileStatus());
+        assertTrue(expression.getExpression() != original);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(4, expression.getValue(context, Integer.class));
+        }
+        assertEquals(CompileStatus.FAILED, expression.getCompileStatus());
+    }
+
+    @Test
+    void ruleCompilerBoundaryTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        RuleFactory interpretedRuleFactory = new DefaultRuleFactory(parser, "info.lostred.ruler.test.rule");
+        RulesEngine interpretedRulesEngine = new CompleteRulesEngine(interpretedRuleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        List<Person> objects = new ArrayList<>();
+        for (String certNo : new String[]{null, "", "12345678901234567", "123456789012345678", "1234567890123456789"}) {
+            Person object = new Person();
+            object.setCertNo(certNo);
+            Area area = new Area();
+            area.setCountry(certNo);
+            object.setArea(area);
+            objects.add(object);
+        }
+        for (Person object : objects) {
+            assertEquals(toJson(interpretedRulesEngine.execute(object)), toJson(rulesEngine.execute(object)));
+            assertEquals(interpretedRulesEngine.evaluate(object), rulesEngine.evaluate(object));
+        }
+        Person nullArea = new Person();
+        for (int i = 0; i < 2; i++) {
+            RuntimeException expected = assertThrows(RuntimeException.class,
+                    () -> interpretedRulesEngine.execute(nullArea));
+            RuntimeException actual = assertThrows(RuntimeException.class, () -> rulesEngine.execute(nullArea));
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+        //属性路径上的null由生成的代码检查，表达式保持编译，getter只调用一次
+        assertTrue(ruleFactory.getRule("地区国家必填").getCompiledRule(nullArea).isPredicateCompiled());
+        assertTrue(ruleFactory.getRule("身份证号码长度").getCompiledRule(nullArea).isComplete());
+        CountingPerson countingPerson = new CountingPerson();
+        assertThrows(SpelEvaluationException.class, () -> rulesEngine.execute(countingPerson));
+        assertEquals(1, countingPerson.areaReads.get());
+        assertTrue(ruleFactory.getRule("地区国家必填").getCompiledRule(countingPerson).isPredicateCompiled());
+        countingPerson.setArea(new Area());
+        assertEquals(toJson(interpretedRulesEngine.execute(countingPerson)), toJson(rulesEngine.execute(countingPerson)));
+    }
+
+    /**
+     * 记录地区读取次数的人员
+     */
+    public static class CountingPerson extends Person {
+        private final AtomicInteger areaReads = new AtomicInteger();
+
+        @Override
+        public Area getArea() {
+            areaReads.incrementAndGet();
+            return super.getArea();
+        }
+    }
+
+    @Test
+    void domainPropertyAccessorTest() throws JsonProcessingException {
+        RuleFactory interpretedRuleFactory = new DefaultRuleFactory(parser, "info.lostred.ruler.test.rule");
+        CompleteRulesEngine reflectiveRulesEngine = new CompleteRulesEngine(interpretedRuleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(interpretedRuleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        rulesEngine.setDomainFactory(domainFactory);
+        assertEquals(domainFactory.getAllDomain(), domainFactory.getPropertyAccessors().stream()
+                .map(DomainPropertyAccessor::getDomainClass).collect(Collectors.toSet()));
+        //SpEL编译器为mixed模式，多次执行后表达式被编译
+        for (int i = 0; i < 200; i++) {
+            assertEquals(toJson(reflectiveRulesEngine.execute(person)), toJson(rulesEngine.execute(person)));
+        }
+        //属性类型为getter的返回类型，属性上的方法调用与数值比较可以按实际类型编译
+        StandardEvaluationContext context = new StandardEvaluationContext(person);
+        context.setPropertyAccessors(new ArrayList<>(domainFactory.getPropertyAccessors()));
+        SpelExpression expression = new SpelExpressionParser().parseRaw("age > certNo.length()");
+        assertEquals(true, expression.getValue(context, Boolean.class));
+        assertEquals("Ljava/lang/Integer", ((SpelNodeImpl) expression.getAST().getChild(0)).getExitDescriptor());
+        assertTrue(expression.compileExpression());
+        assertEquals(true, expression.getValue(context, Boolean.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapAndJsonNodeTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("12312");
+        other.setGender("未知");
+        other.setArea(new Area());
+        other.setContacts(person.getContacts());
+        Map<String, Object> map = objectMapper.convertValue(other, Map.class);
+        JsonNode jsonNode = objectMapper.valueToTree(other);
+        String expected = toJson(rulesEngine.execute(other).getReports().keySet());
+        assertEquals(expected, toJson(rulesEngine.execute(map).getReports().keySet()));
+        assertEquals(expected, toJson(rulesEngine.execute(jsonNode).getReports().keySet()));
+        assertEquals(toJson(rulesEngine.execute(other).getReports().get("联系方式类型必填").getErrors()),
+                toJson(rulesEngine.execute(jsonNode).getReports().get("联系方式类型必填").getErrors()));
+        assertEquals(rulesEngine.evaluate(other), rulesEngine.evaluate(jsonNode));
+    }
+
+    @Test
+    void qualifiedResultTest() {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("123456789012345678");
+        Area area = new Area();
+        area.setCountry("中国");
+        other.setArea(area);
+        Result qualified = rulesEngine.execute(other);
+        assertEquals(Grade.QUALIFIED, qualified.getGrade());
+        assertTrue(qualified.getReports().isEmpty());
+        //合格的结果每次执行都是新的实例，调用方可以继续补充报告
+        Result another = rulesEngine.execute(other);
+        assertNotSame(qualified, another);
+        RuleDefinition ruleDefinition = ruleFactory.getRule("身份证号码长度").getRuleDefinition();
+        qualified.addReport(Report.of(ruleDefinition).putError("certNo", other.getCertNo()));
+        qualified.statistic();
+        assertEquals(Grade.ILLEGAL, qualified.getGrade());
+        assertEquals(1, qualified.getIllegalCount());
+        assertEquals(Grade.QUALIFIED, another.getGrade());
+        assertTrue(another.getReports().isEmpty());
+        Result result = rulesEngine.execute(person);
+        long illegalCount = result.getIllegalCount();
+        result.statistic();
+        assertEquals(illegalCount, result.getIllegalCount());
+        assertTrue(illegalCount > 0);
+    }
+
+    @Test
+    void jsonArrayValidatorTest() throws IOException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        Person other = new Person();
+        other.setCertNo("123456789012345678");
+        other.setArea(new Area());
+        List<Person> objects = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            objects.add(i % 2 == 0 ? person : other);
+        }
+        byte[] json = objectMapper.writeValueAsBytes(objects);
+        List<String> expected = new ArrayList<>();
+        for (Person object : objectMapper.readValue(json, Person[].class)) {
+            expected.add(toJson(rulesEngine.execute(object)));
+        }
+        List<String> actual = new ArrayList<>();
+        JsonArrayValidator validator = JsonArrayValidator.of(rulesEngine, objectMapper, Person.class, false);
+        AtomicInteger closes = new AtomicInteger();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(json) {
+            @Override
+            public void close() throws IOException {
+                closes.incrementAndGet();
+                super.close();
+            }
+        };
+        long count = validator.execute(inputStream, (record, result) -> {
+            try {
+                actual.add(toJson(result));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(objects.size(), count);
+        assertEquals(expected, actual);
+        //输入流由调用方关闭
+        assertEquals(0, closes.get());
+        StringReader characterStream = new StringReader(new String(json, StandardCharsets.UTF_8));
+        assertEquals(objects.size(), validator.evaluate(characterStream, (record, illegal) -> {
+        }));
+        characterStream.reset();
+        byte[] others = objectMapper.writeValueAsBytes(Collections.nCopies(objects.size(), other));
+        try (Stream<Result> results = JsonArrayValidator.of(rulesEngine, objectMapper)
+                .stream(new ByteArrayInputStream(others))) {
+            assertEquals(objects.size(), results.filter(e -> Grade.ILLEGAL.equals(e.getGrade())).count());
+        }
+    }
+
+    @Test
+    void resultCodecTest() throws JsonProcessingException {
+        AbstractRulesEngine rulesEngine = (AbstractRulesEngine) rulesEngineFactory.getEngine(businessType);
+        Result result = rulesEngine.execute(person);
+        ResultCodec codec = ResultCodec.of(rulesEngine.getRuleDictionary());
+        byte[] bytes = codec.encode(result);
+        assertTrue(bytes.length < toJson(result).getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(toJson(result), toJson(codec.decode(bytes)));
+        ResultReader reader = codec.reader(ByteBuffer.wrap(bytes));
+        long illegalCount = 0;
+        while (reader.nextReport()) {
+            while (reader.nextError()) {
+                if (Grade.ILLEGAL.equals(reader.getRuleDefinition().getGrade())) {
+                    illegalCount++;
+                }
+            }
+        }
+        assertEquals(result.getIllegalCount(), illegalCount);
+        assertEquals(result.getGrade(), reader.getGrade());
+        List<RuleDefinition> ruleDefinitions = new ArrayList<>(rulesEngine.getRuleDictionary().getRuleDefinitions());
+        ResultCodec remote = ResultCodec.of(RuleDictionary.of(-1L, businessType, ruleDefinitions));
+        assertEquals(toJson(result), toJson(remote.decode(bytes)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ResultCodec.of(RuleDictionary.of(-1L, "other", ruleDefinitions)).decode(bytes));
+        Collections.reverse(ruleDefinitions);
+        assertThrows(IllegalArgumentException.class,
+                () -> ResultCodec.of(RuleDictionary.of(-1L, businessType, ruleDefinitions)).decode(bytes));
+    }
+
+    @Test
+    void ruleInterceptorTest() {
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        AtomicInteger illegalCount = new AtomicInteger();
+        RuleInterceptor interceptor = new RuleInterceptor() {
+            @Override
+            public void afterJudge(AbstractRule rule, Object object, boolean illegal, long elapsedNanos) {
+                if (illegal) {
+                    illegalCount.incrementAndGet();
+                }
+            }
+        };
+        rulesEngine.addInterceptor(interceptor);
+        Result result = rulesEngine.execute(person);
+        assertEquals(result.getReports().values().stream().mapToInt(e -> e.getErrors().size()).sum(),
+                illegalCount.get());
+        assertTrue(rulesEngine.removeInterceptor(interceptor));
+        assertEquals(CertNoLengthRule.class, ruleFactory.getRule("身份证号码长度").getClass());
+    }
+
+    @Test
+    void updateRulesTest() {
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        int size = rulesEngine.getRuleDefinitions().size();
+        rulesEngine.updateRules(Collections.emptyList(), Arrays.asList("身份证号码长度", "生日范围"));
+        assertEquals(size - 2, rulesEngine.getRuleDefinitions().size());
+        assertTrue(rulesEngine.getRule("身份证号码长度") == null);
+        rulesEngine.updateRules(Arrays.asList("身份证号码长度", "生日范围"), Collections.emptyList());
+        assertEquals(size, rulesEngine.getRuleDefinitions().size());
+        assertEquals(CertNoLengthRule.class, rulesEngine.getRule("身份证号码长度").getClass());
+        List<Integer> orders = new ArrayList<>();
+        rulesEngine.getRuleDefinitions().forEach(e -> orders.add(e.getOrder()));
+        List<Integer> sorted = new ArrayList<>(orders);
+        Collections.sort(sorted);
+        assertEquals(sorted, orders);
+    }
+
+    @Test
+    void reloadRulesTest() {
+        long count = ruleFactory.getRuleDefinitions().stream()
+                .filter(e -> businessType.equals(e.getBusinessType()))
+                .count();
+        assertEquals(count, ruleFactory.findRules(businessType).size());
+        assertTrue(ruleFactory.findRules("不存在的业务类型").isEmpty());
+        CompleteRulesEngine rulesEngine = new CompleteRulesEngine(ruleFactory, businessType,
+                beanResolver, parser, globalFunctions);
+        long version = rulesEngine.getSnapshot().getVersion();
+        rulesEngineFactory.reloadRules();
+        rulesEngine.reloadRules();
+        assertEquals(version, rulesEngine.getSnapshot().getVersion());
+        assertEquals(count, rulesEngine.getRuleDefinitions().size());
+        rulesEngine.forceRemoveRule("身份证号码长度");
+        rulesEngine.reloadRules();
+        assertEquals(version + 2, rulesEngine.getSnapshot().getVersion());
+        Result result = rulesEngine.execute(person);
+        assertEquals(Grade.ILLEGAL, result.getGrade());
+        assertEquals(version + 2, result.getVersion());
+    }
+
+    @Test
+    void rulerEndpointTest() throws JsonProcessingException {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        rulesEngine.execute(person);
+        rulesEngine.evaluate(person);
+        RulerEndpoint.EngineDescriptor engine = rulerEndpoint.engines().get(businessType);
+        assertTrue(engine.isInstrumented());
+        assertTrue(engine.getExecutions() > 0);
+        assertTrue(engine.getGrades().get(Grade.ILLEGAL.name()) > 0);
+        RulerEndpoint.RuleDescriptor rule = engine.getRules().stream()
+                .filter(e -> "身份证号码长度".equals(e.getRuleCode()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertTrue(rule.getJudgements() > 0);
+        assertTrue(rule.getViolations() > 0);
+        assertEquals((double) rule.getViolations() / rule.getJudgements(), rule.getViolationRate(), 1e-9);
+        assertTrue(rule.getViolationRate() <= 1);
+        assertTrue(rule.getP50() > 0);
+        assertTrue(rule.getP99() >= rule.getP50());
+        //规则按p99耗时降序排列
+        List<RulerEndpoint.RuleDescriptor> rules = engine.getRules();
+        for (int i = 1; i < rules.size(); i++) {
+            assertTrue(rules.get(i - 1).getP99() >= rules.get(i).getP99());
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package info.lostred.ruler.benchmark;
+
+import info.lostred.ruler.benchmark.domain.Person;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.CompleteRulesEngine;
+import info.lostred.ruler.engine.IncompleteRulesEngine;
+import info.lostred.ruler.engine.SimpleRulesEngine;
+import info.lostred.ruler.expression.CachingExpressionParser;
+import info.lostred.ruler.factory.RuleFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.ExpressionParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集合元素规则的基准测试
+ * <p>按集合大小与违规元素比例参数化，规则的参数表达式带有"[#i]"，对集合中的每个元素执行</p>
+ *
+ * @author lostred
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionRulesEngineBenchmark {
+    @Param({"1", "100", "10000", "100000"})
+    public int collectionSize;
+    @Param({"0.0", "0.01", "0.5"})
+    public double failRatio;
+    private Person person;
+    private SimpleRulesEngine simpleRulesEngine;
+    private CompleteRulesEngine completeRulesEngine;
+    private IncompleteRulesEngine incompleteRulesEngine;
+
+    @Setup
+    public void setup() {
+        ExpressionParser parser = new CachingExpressionParser();
+        RuleFactory ruleFactory = Fixtures.ruleFactory(parser, Fixtures.collectionRules());
+        this.person = Fixtures.person(collectionSize, failRatio);
+        this.simpleRulesEngine = Fixtures.engine(ruleFactory, parser, SimpleRulesEngine.class);
+        this.completeRulesEngine = Fixtures.engine(ruleFactory, parser, CompleteRulesEngine.class);
+        this.incompleteRulesEngine = Fixtures.engine(ruleFactory, parser, IncompleteRulesEngine.class);
+    }
+
+    @Benchmark
+    public boolean simpleEvaluate() {
+        return simpleRulesEngine.evaluate(person);
+    }
+
+    @Benchmark
+    public Result completeExecute() {
+        return completeRulesEngine.execute(person);
+    }
+
+    @Benchmark
+    public Result incompleteExecute() {
+        return incompleteRulesEngine.execute(person);
+    }
+}
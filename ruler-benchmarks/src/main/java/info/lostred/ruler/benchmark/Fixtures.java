@@ -0,0 +1,177 @@
+package info.lostred.ruler.benchmark;
+
+import info.lostred.ruler.benchmark.domain.Area;
+import info.lostred.ruler.benchmark.domain.Contact;
+import info.lostred.ruler.benchmark.domain.Person;
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.engine.AbstractRulesEngine;
+import info.lostred.ruler.factory.DefaultRuleFactory;
+import info.lostred.ruler.factory.RuleFactory;
+import info.lostred.ruler.factory.RulesEngineFactory;
+import info.lostred.ruler.rule.AbstractRule;
+import org.springframework.expression.ExpressionParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基准测试的规则与数据
+ * <p>违规的规则或集合元素按违规比例均匀分布，使遇到违规即结束的引擎在不同比例下有稳定的执行位置</p>
+ *
+ * @author lostred
+ */
+public final class Fixtures {
+    public static final String BUSINESS_TYPE = "benchmark";
+    public static final int AGE = 30;
+    public static final String CERT_NO = "110101199001011234";
+    public static final String GENDER = "M";
+    public static final String COUNTRY = "CN";
+
+    private Fixtures() {
+    }
+
+    /**
+     * 判断第index个规则或元素是否违规
+     *
+     * @param index     下标
+     * @param failRatio 违规比例
+     * @return 违规返回true，否则返回false
+     */
+    public static boolean isFailing(int index, double failRatio) {
+        return Math.floor((index + 1) * failRatio) > Math.floor(index * failRatio);
+    }
+
+    /**
+     * 构建单个属性的规则，规则依次轮换整数比较、方法调用、属性链与字符串比较，
+     * 每条规则的断定表达式都不相同
+     *
+     * @param ruleCount 规则数量
+     * @param failRatio 对{@link #person(int, double)}违规的规则比例
+     * @return 规则定义集合
+     */
+    public static List<RuleDefinition> scalarRules(int ruleCount, double failRatio) {
+        List<RuleDefinition> ruleDefinitions = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            boolean failing = isFailing(i, failRatio);
+            String parameterExp;
+            String conditionExp;
+            String predicateExp;
+            switch (i % 4) {
+                case 0:
+                    parameterExp = "age";
+                    conditionExp = "age != null";
+                    predicateExp = failing ? "age >= " + (-i) : "age < " + (-i);
+                    break;
+                case 1:
+                    parameterExp = "certNo";
+                    conditionExp = "certNo != null";
+                    predicateExp = failing ? "certNo.length() > " + (17 - i) : "certNo.length() > " + (18 + i);
+                    break;
+                case 2:
+                    parameterExp = "area.country";
+                    conditionExp = "area != null";
+                    predicateExp = (failing ? "area.country != 'X" : "area.country == 'X") + i + "'";
+                    break;
+                default:
+                    parameterExp = "gender";
+                    conditionExp = "gender != null";
+                    predicateExp = (failing ? "gender != 'G" : "gender == 'G") + i + "'";
+                    break;
+            }
+            ruleDefinitions.add(rule("scalar-" + i, i, parameterExp, conditionExp, predicateExp));
+        }
+        return ruleDefinitions;
+    }
+
+    /**
+     * 构建针对联系方式集合元素的规则
+     *
+     * @return 规则定义集合
+     */
+    public static List<RuleDefinition> collectionRules() {
+        List<RuleDefinition> ruleDefinitions = new ArrayList<>();
+        ruleDefinitions.add(rule("contact-type", 0, "contacts[#i].type",
+                "true", "contacts[#i].type == null || contacts[#i].type.isEmpty()"));
+        ruleDefinitions.add(rule("contact-account", 1, "contacts[#i].account",
+                "contacts[#i].type != null", "contacts[#i].account == null"));
+        ruleDefinitions.add(rule("contact-country", 2, "contacts[#i].area.country",
+                "contacts[#i].area != null", "contacts[#i].area.country == null"));
+        return ruleDefinitions;
+    }
+
+    private static RuleDefinition rule(String ruleCode, int order,
+                                       String parameterExp, String conditionExp, String predicateExp) {
+        return RuleDefinition.of(ruleCode, BUSINESS_TYPE, Grade.ILLEGAL, ruleCode,
+                order, false, true,
+                AbstractRule.class, parameterExp, conditionExp, predicateExp);
+    }
+
+    /**
+     * 构建待校验的对象
+     *
+     * @param collectionSize 联系方式数量
+     * @param failRatio      违规的联系方式比例
+     * @return 待校验的对象
+     */
+    public static Person person(int collectionSize, double failRatio) {
+        Person person = new Person();
+        person.setCertNo(CERT_NO);
+        person.setName("benchmark");
+        person.setGender(GENDER);
+        person.setAge(AGE);
+        person.setArea(area(COUNTRY));
+        List<Contact> contacts = new ArrayList<>(collectionSize);
+        for (int i = 0; i < collectionSize; i++) {
+            Contact contact = new Contact();
+            if (!isFailing(i, failRatio)) {
+                contact.setType("mobile");
+                contact.setAccount("1380000" + i);
+                contact.setArea(area(COUNTRY));
+            } else {
+                contact.setArea(area(null));
+            }
+            contacts.add(contact);
+        }
+        person.setContacts(contacts);
+        return person;
+    }
+
+    private static Area area(String country) {
+        Area area = new Area();
+        area.setCountry(country);
+        return area;
+    }
+
+    /**
+     * 构建规则工厂
+     *
+     * @param parser          表达式解析器
+     * @param ruleDefinitions 规则定义集合
+     * @return 规则工厂
+     */
+    public static RuleFactory ruleFactory(ExpressionParser parser, List<RuleDefinition> ruleDefinitions) {
+        DefaultRuleFactory ruleFactory = new DefaultRuleFactory(parser);
+        for (RuleDefinition ruleDefinition : ruleDefinitions) {
+            ruleFactory.registerRuleDefinition(ruleDefinition);
+            ruleFactory.createRule(ruleDefinition);
+        }
+        return ruleFactory;
+    }
+
+    /**
+     * 构建规则引擎
+     *
+     * @param ruleFactory      规则工厂
+     * @param parser           表达式解析器
+     * @param rulesEngineClass 规则引擎类型
+     * @param <T>              规则引擎类型
+     * @return 规则引擎
+     */
+    public static <T extends AbstractRulesEngine> T engine(RuleFactory ruleFactory, ExpressionParser parser,
+                                                           Class<T> rulesEngineClass) {
+        return RulesEngineFactory.builder(ruleFactory, BUSINESS_TYPE, null, parser,
+                Collections.emptyList(), rulesEngineClass).build();
+    }
+}
@@ -0,0 +1,61 @@
+package info.lostred.ruler.benchmark;
+
+import info.lostred.ruler.benchmark.domain.Person;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.CompleteRulesEngine;
+import info.lostred.ruler.engine.IncompleteRulesEngine;
+import info.lostred.ruler.engine.SimpleRulesEngine;
+import info.lostred.ruler.expression.CachingExpressionParser;
+import info.lostred.ruler.factory.RuleFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.ExpressionParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个属性规则的基准测试
+ * <p>按规则数量与违规规则比例参数化，对比三种引擎对同一个对象的执行耗时</p>
+ *
+ * @author lostred
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesEngineBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int ruleCount;
+    @Param({"0.0", "0.01", "0.5"})
+    public double failRatio;
+    private Person person;
+    private SimpleRulesEngine simpleRulesEngine;
+    private CompleteRulesEngine completeRulesEngine;
+    private IncompleteRulesEngine incompleteRulesEngine;
+
+    @Setup
+    public void setup() {
+        ExpressionParser parser = new CachingExpressionParser();
+        RuleFactory ruleFactory = Fixtures.ruleFactory(parser, Fixtures.scalarRules(ruleCount, failRatio));
+        this.person = Fixtures.person(0, 0);
+        this.simpleRulesEngine = Fixtures.engine(ruleFactory, parser, SimpleRulesEngine.class);
+        this.completeRulesEngine = Fixtures.engine(ruleFactory, parser, CompleteRulesEngine.class);
+        this.incompleteRulesEngine = Fixtures.engine(ruleFactory, parser, IncompleteRulesEngine.class);
+    }
+
+    @Benchmark
+    public boolean simpleEvaluate() {
+        return simpleRulesEngine.evaluate(person);
+    }
+
+    @Benchmark
+    public Result completeExecute() {
+        return completeRulesEngine.execute(person);
+    }
+
+    @Benchmark
+    public Result incompleteExecute() {
+        return incompleteRulesEngine.execute(person);
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * <h2>基准测试包</h2>
+ * <p>基于JMH的规则引擎基准测试，覆盖引擎类型、规则数量、集合大小与违规比例，
+ * 配合gc分析器报告单次执行分配的字节数，作为引擎性能优化的共同基线</p>
+ *
+ * @see info.lostred.ruler.benchmark.RulesEngineBenchmark
+ * @see info.lostred.ruler.benchmark.CollectionRulesEngineBenchmark
+ */
+package info.lostred.ruler.benchmark;
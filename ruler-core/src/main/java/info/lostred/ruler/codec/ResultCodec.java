@@ -0,0 +1,252 @@
+package info.lostred.ruler.codec;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Report;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.domain.RuleDefinition;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * 结果编解码器
+ * <p>将引擎执行的结果编码为紧凑的二进制格式：格式版本、规则快照版本、规则字典的业务类型与指纹、
+ * 校验结果等级、可疑与违规字段数量，以及每份报告的字典编号与违规字段。
+ * 规则快照版本只在进程内有意义，解码时以业务类型与指纹校验规则字典，保证跨进程解码时编号对应相同的规则。报告中的规则只写入规则字典中的编号，
+ * 违规字段名与规则的参数表达式相同时只写入一个标记，违规字段的值按{@link ValueType}写入。
+ * 整数均使用变长编码，有符号整数使用zigzag编码</p>
+ *
+ * @author lostred
+ */
+public final class ResultCodec {
+    /**
+     * 编码格式的版本
+     */
+    static final byte FORMAT = 2;
+    /**
+     * 违规字段名为规则的参数表达式
+     */
+    static final byte PARAMETER_FIELD = 0;
+    /**
+     * 违规字段名为字符串
+     */
+    static final byte STRING_FIELD = 1;
+    static final Grade[] GRADES = Grade.values();
+    /**
+     * 规则快照版本与规则字典的映射
+     */
+    private final LongFunction<RuleDictionary> dictionaries;
+
+    private ResultCodec(LongFunction<RuleDictionary> dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * 根据规则字典构建编解码器，只能编码与字典版本相同的结果，
+     * 解码时不要求版本相同，只要求结果的业务类型与指纹和字典一致
+     *
+     * @param dictionary 规则字典
+     * @return 编解码器
+     */
+    public static ResultCodec of(RuleDictionary dictionary) {
+        return new ResultCodec(version -> dictionary);
+    }
+
+    /**
+     * 根据规则快照版本查找规则字典构建编解码器
+     *
+     * @param dictionaries 规则快照版本与规则字典的映射，版本不存在时返回null
+     * @return 编解码器
+     */
+    public static ResultCodec of(LongFunction<RuleDictionary> dictionaries) {
+        return new ResultCodec(dictionaries);
+    }
+
+    /**
+     * 编码结果
+     *
+     * @param result 引擎执行的结果
+     * @return 编码后的字节数组
+     * @throws IllegalArgumentException 没有与结果版本相同的规则字典，或报告中的规则不在字典中时
+     */
+    public byte[] encode(Result result) {
+        RuleDictionary dictionary = dictionaries.apply(result.getVersion());
+        if (dictionary == null || dictionary.getVersion() != result.getVersion()) {
+            throw new IllegalArgumentException("No rule dictionary of version " + result.getVersion());
+        }
+        Map<String, Report> reports = result.getReports();
+        Output output = new Output(16 + reports.size() * 32);
+        output.writeByte(FORMAT);
+        output.writeVarLong(result.getVersion());
+        output.writeString(dictionary.getBusinessType());
+        output.writeFixed(dictionary.getFingerprint(), Long.BYTES);
+        output.writeByte(result.getGrade().ordinal());
+        output.writeVarLong(result.getSuspectedCount());
+        output.writeVarLong(result.getIllegalCount());
+        output.writeVarLong(reports.size());
+        for (Report report : reports.values()) {
+            RuleDefinition ruleDefinition = report.getRuleDefinition();
+            Map<String, Object> errors = report.getErrors();
+            output.writeVarLong(dictionary.getId(ruleDefinition.getRuleCode()));
+            output.writeVarLong(errors.size());
+            for (Map.Entry<String, Object> entry : errors.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().equals(ruleDefinition.getParameterExp())) {
+                    output.writeByte(PARAMETER_FIELD);
+                } else {
+                    output.writeByte(STRING_FIELD);
+                    output.writeString(String.valueOf(entry.getKey()));
+                }
+                output.writeValue(entry.getValue());
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 解码结果
+     *
+     * @param bytes 编码后的字节数组
+     * @return 引擎执行的结果
+     */
+    public Result decode(byte[] bytes) {
+        return this.decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 从缓冲区的当前位置解码结果，不修改缓冲区的位置
+     *
+     * @param buffer 缓冲区
+     * @return 引擎执行的结果
+     * @throws IllegalArgumentException 格式不支持、没有对应的规则字典或规则字典的标识不一致时
+     */
+    public Result decode(ByteBuffer buffer) {
+        ResultReader reader = this.reader(buffer);
+        Result result = Result.of(reader.getVersion());
+        while (reader.nextReport()) {
+            Report report = Report.of(reader.getRuleDefinition());
+            while (reader.nextError()) {
+                report.putError(reader.getFieldName(), reader.getValue());
+            }
+            result.addReport(report);
+        }
+        result.updateGrade(reader.getGrade());
+        return result;
+    }
+
+    /**
+     * 创建直接读取缓冲区的结果读取器，不修改缓冲区的位置
+     *
+     * @param buffer 缓冲区
+     * @return 结果读取器
+     * @throws IllegalArgumentException 格式不支持、没有对应的规则字典或规则字典的标识不一致时
+     */
+    public ResultReader reader(ByteBuffer buffer) {
+        return new ResultReader(buffer, dictionaries);
+    }
+
+    /**
+     * 可扩容的字节输出
+     */
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void ensureCapacity(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + length));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        void writeValue(Object value) {
+            ValueType valueType = ValueType.of(value);
+            writeByte(valueType.ordinal());
+            switch (valueType) {
+                case NULL:
+                    break;
+                case BOOLEAN:
+                    writeByte((Boolean) value ? 1 : 0);
+                    break;
+                case INT:
+                    int n = ((Number) value).intValue();
+                    writeVarLong(((n << 1) ^ (n >> 31)) & 0xFFFFFFFFL);
+                    break;
+                case LONG:
+                    writeZigZag((Long) value);
+                    break;
+                case FLOAT:
+                    writeFixed(Float.floatToIntBits((Float) value), Float.BYTES);
+                    break;
+                case DOUBLE:
+                    writeFixed(Double.doubleToLongBits((Double) value), Double.BYTES);
+                    break;
+                case DATE:
+                    writeZigZag(((Date) value).getTime());
+                    break;
+                case LOCAL_DATE:
+                    writeZigZag(((LocalDate) value).toEpochDay());
+                    break;
+                case LOCAL_DATE_TIME:
+                    LocalDateTime dateTime = (LocalDateTime) value;
+                    writeZigZag(dateTime.toLocalDate().toEpochDay());
+                    writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+                    break;
+                case BIG_INTEGER:
+                case BIG_DECIMAL:
+                    writeString(value.toString());
+                    break;
+                default:
+                    writeString(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+
+        /**
+         * 按大端序写入定长整数，与{@link ByteBuffer}的默认字节序一致
+         */
+        void writeFixed(long value, int length) {
+            ensureCapacity(length);
+            for (int i = length - 1; i >= 0; i--) {
+                bytes[size++] = (byte) (value >>> (i << 3));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package info.lostred.ruler.codec;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.RuleDefinition;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.function.LongFunction;
+
+/**
+ * 结果读取器
+ * <p>直接在ByteBuffer上按报告与违规字段逐条读取编码后的结果，不复制缓冲区，
+ * 字段名与值只在调用对应方法时才被解码，未读取的值在移动到下一条时直接跳过。
+ * 创建时校验编码结果的业务类型与指纹和规则字典一致，不一致时拒绝读取。
+ * 读取器不是线程安全的，不会修改传入缓冲区的位置</p>
+ *
+ * @author lostred
+ */
+public final class ResultReader {
+    private final ByteBuffer buffer;
+    private final RuleDictionary dictionary;
+    private final long version;
+    private final Grade grade;
+    private final long suspectedCount;
+    private final long illegalCount;
+    private final int reportCount;
+    private int remainingReports;
+    /**
+     * 当前报告的规则定义
+     */
+    private RuleDefinition ruleDefinition;
+    private int errorCount;
+    private int remainingErrors;
+    /**
+     * 当前字段名的位置，字段名为参数表达式时为-1
+     */
+    private int fieldNamePosition;
+    private int fieldNameLength;
+    /**
+     * 当前值的类型与位置
+     */
+    private ValueType valueType;
+    private int valuePosition;
+
+    ResultReader(ByteBuffer buffer, LongFunction<RuleDictionary> dictionaries) {
+        this.buffer = buffer.duplicate();
+        int format = this.buffer.get();
+        if (format != ResultCodec.FORMAT) {
+            throw new IllegalArgumentException("Unsupported result format " + format);
+        }
+        this.version = readVarLong();
+        this.dictionary = dictionaries.apply(this.version);
+        if (this.dictionary == null) {
+            throw new IllegalArgumentException("No rule dictionary of version " + this.version);
+        }
+        String businessType = readString();
+        long fingerprint = this.buffer.getLong();
+        if (!businessType.equals(this.dictionary.getBusinessType()) || fingerprint != this.dictionary.getFingerprint()) {
+            throw new IllegalArgumentException("The result of business type '" + businessType + "' was encoded with a different rule dictionary");
+        }
+        this.grade = ResultCodec.GRADES[this.buffer.get()];
+        this.suspectedCount = readVarLong();
+        this.illegalCount = readVarLong();
+        this.reportCount = readVarInt();
+        this.remainingReports = this.reportCount;
+    }
+
+    /**
+     * 移动到下一份报告，当前报告中未读取的违规字段被跳过
+     *
+     * @return 存在下一份报告返回true，否则返回false
+     */
+    public boolean nextReport() {
+        while (this.nextError()) {
+            // 跳过当前报告中未读取的违规字段
+        }
+        this.valueType = null;
+        if (remainingReports == 0) {
+            this.ruleDefinition = null;
+            return false;
+        }
+        remainingReports--;
+        this.ruleDefinition = dictionary.getRuleDefinition(readVarInt());
+        this.errorCount = readVarInt();
+        this.remainingErrors = this.errorCount;
+        return true;
+    }
+
+    /**
+     * 移动到当前报告的下一个违规字段，当前字段未读取的值被跳过
+     *
+     * @return 存在下一个违规字段返回true，否则返回false
+     */
+    public boolean nextError() {
+        if (remainingErrors == 0) {
+            this.valueType = null;
+            return false;
+        }
+        remainingErrors--;
+        if (buffer.get() == ResultCodec.PARAMETER_FIELD) {
+            this.fieldNamePosition = -1;
+        } else {
+            this.fieldNameLength = readVarInt();
+            this.fieldNamePosition = buffer.position();
+            buffer.position(fieldNamePosition + fieldNameLength);
+        }
+        this.valueType = ValueType.of(buffer.get());
+        this.valuePosition = buffer.position();
+        this.skipValue();
+        return true;
+    }
+
+    /**
+     * 获取当前违规字段名
+     *
+     * @return 字段名
+     */
+    public String getFieldName() {
+        this.checkError();
+        return fieldNamePosition < 0 ? ruleDefinition.getParameterExp() : decodeString(fieldNamePosition, fieldNameLength);
+    }
+
+    /**
+     * 获取当前违规字段值的类型
+     *
+     * @return 值类型
+     */
+    public ValueType getValueType() {
+        this.checkError();
+        return valueType;
+    }
+
+    /**
+     * 解码当前违规字段的值
+     *
+     * @return 值
+     */
+    public Object getValue() {
+        this.checkError();
+        int position = buffer.position();
+        buffer.position(valuePosition);
+        try {
+            switch (valueType) {
+                case NULL:
+                    return null;
+                case BOOLEAN:
+                    return buffer.get() != 0;
+                case INT:
+                    return decodeZigZag(readVarInt());
+                case LONG:
+                    return decodeZigZag(readVarLong());
+                case FLOAT:
+                    return buffer.getFloat();
+                case DOUBLE:
+                    return buffer.getDouble();
+                case DATE:
+                    return new Date(decodeZigZag(readVarLong()));
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(decodeZigZag(readVarLong()));
+                case LOCAL_DATE_TIME:
+                    LocalDate date = LocalDate.ofEpochDay(decodeZigZag(readVarLong()));
+                    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+                case BIG_INTEGER:
+                    return new BigInteger(readString());
+                case BIG_DECIMAL:
+                    return new BigDecimal(readString());
+                default:
+                    return readString();
+            }
+        } finally {
+            buffer.position(position);
+        }
+    }
+
+    private void checkError() {
+        if (valueType == null) {
+            throw new IllegalStateException("The reader is not positioned on an error");
+        }
+    }
+
+    private void skipValue() {
+        switch (valueType) {
+            case NULL:
+                break;
+            case BOOLEAN:
+                buffer.get();
+                break;
+            case INT:
+            case LONG:
+            case DATE:
+            case LOCAL_DATE:
+                readVarLong();
+                break;
+            case LOCAL_DATE_TIME:
+                readVarLong();
+                readVarLong();
+                break;
+            case FLOAT:
+                buffer.position(buffer.position() + Float.BYTES);
+                break;
+            case DOUBLE:
+                buffer.position(buffer.position() + Double.BYTES);
+                break;
+            default:
+                int length = readVarInt();
+                buffer.position(buffer.position() + length);
+        }
+    }
+
+    private String readString() {
+        int length = readVarInt();
+        int position = buffer.position();
+        buffer.position(position + length);
+        return decodeString(position, length);
+    }
+
+    private String decodeString(int position, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer");
+    }
+
+    private static int decodeZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long decodeZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    public long getSuspectedCount() {
+        return suspectedCount;
+    }
+
+    public long getIllegalCount() {
+        return illegalCount;
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    public RuleDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * 获取当前报告的规则定义
+     *
+     * @return 规则定义，未移动到报告上时为null
+     */
+    public RuleDefinition getRuleDefinition() {
+        return ruleDefinition;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+}
@@ -0,0 +1,157 @@
+package info.lostred.ruler.codec;
+
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.engine.RuleSnapshot;
+import info.lostred.ruler.rule.AbstractRule;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 规则字典
+ * <p>为规则快照中的规则按顺序分配编号，编码结果时以编号代替完整的规则定义。
+ * 字典的版本与规则快照的版本一致，只在进程内有意义；字典的标识由业务类型与指纹组成，
+ * 指纹由按编号排列的规则编号、参数表达式与严重等级计算，不同进程中相同的规则集合得到相同的标识，
+ * 解码时以标识校验编码时使用的字典</p>
+ *
+ * @author lostred
+ */
+public final class RuleDictionary {
+    /**
+     * 字典版本
+     */
+    private final long version;
+    /**
+     * 业务类型
+     */
+    private final String businessType;
+    /**
+     * 规则集合的指纹
+     */
+    private final long fingerprint;
+    /**
+     * 按编号排列的规则定义
+     */
+    private final RuleDefinition[] ruleDefinitions;
+    /**
+     * 规则编号与字典编号的映射
+     */
+    private final Map<String, Integer> ids;
+
+    private RuleDictionary(long version, String businessType, RuleDefinition[] ruleDefinitions) {
+        this.version = version;
+        this.businessType = businessType == null ? "" : businessType;
+        this.ruleDefinitions = ruleDefinitions;
+        this.fingerprint = fingerprint(this.businessType, ruleDefinitions);
+        this.ids = new HashMap<>((int) (ruleDefinitions.length / 0.75f) + 1);
+        for (int i = 0; i < ruleDefinitions.length; i++) {
+            if (this.ids.put(ruleDefinitions[i].getRuleCode(), i) != null) {
+                throw new IllegalArgumentException("Duplicate rule code '" + ruleDefinitions[i].getRuleCode() + "'");
+            }
+        }
+    }
+
+    /**
+     * 根据规则快照构建规则字典
+     *
+     * @param businessType 业务类型
+     * @param snapshot     规则快照
+     * @return 规则字典
+     */
+    public static RuleDictionary of(String businessType, RuleSnapshot snapshot) {
+        List<AbstractRule> rules = snapshot.getRules();
+        RuleDefinition[] ruleDefinitions = new RuleDefinition[rules.size()];
+        for (int i = 0; i < ruleDefinitions.length; i++) {
+            ruleDefinitions[i] = rules.get(i).getRuleDefinition();
+        }
+        return new RuleDictionary(snapshot.getVersion(), businessType, ruleDefinitions);
+    }
+
+    /**
+     * 根据规则定义集合构建规则字典，编号为规则定义在集合中的位置
+     *
+     * @param version         字典版本
+     * @param businessType    业务类型
+     * @param ruleDefinitions 规则定义集合
+     * @return 规则字典
+     */
+    public static RuleDictionary of(long version, String businessType, Collection<RuleDefinition> ruleDefinitions) {
+        return new RuleDictionary(version, businessType, ruleDefinitions.toArray(new RuleDefinition[0]));
+    }
+
+    /**
+     * 计算规则集合的指纹，取SHA-256摘要的前8个字节
+     */
+    private static long fingerprint(String businessType, RuleDefinition[] ruleDefinitions) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(businessType.getBytes(StandardCharsets.UTF_8));
+        for (RuleDefinition ruleDefinition : ruleDefinitions) {
+            String entry = "\n" + ruleDefinition.getRuleCode() + "\u0000" + ruleDefinition.getParameterExp()
+                    + "\u0000" + ruleDefinition.getGrade();
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * 获取规则编号对应的字典编号
+     *
+     * @param ruleCode 规则编号
+     * @return 字典编号
+     * @throws IllegalArgumentException 字典中没有该规则时
+     */
+    public int getId(String ruleCode) {
+        Integer id = ids.get(ruleCode);
+        if (id == null) {
+            throw new IllegalArgumentException("Rule '" + ruleCode + "' is not in the dictionary of version " + version);
+        }
+        return id;
+    }
+
+    /**
+     * 获取字典编号对应的规则定义
+     *
+     * @param id 字典编号
+     * @return 规则定义
+     * @throws IllegalArgumentException 字典中没有该编号时
+     */
+    public RuleDefinition getRuleDefinition(int id) {
+        if (id < 0 || id >= ruleDefinitions.length) {
+            throw new IllegalArgumentException("Rule id " + id + " is not in the dictionary of version " + version);
+        }
+        return ruleDefinitions[id];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getBusinessType() {
+        return businessType;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return ruleDefinitions.length;
+    }
+
+    /**
+     * 获取按编号排列的规则定义
+     *
+     * @return 不可修改的规则定义集合
+     */
+    public List<RuleDefinition> getRuleDefinitions() {
+        return Collections.unmodifiableList(Arrays.asList(ruleDefinitions));
+    }
+}
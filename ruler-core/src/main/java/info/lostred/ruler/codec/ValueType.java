@@ -0,0 +1,113 @@
+package info.lostred.ruler.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * 违规字段值的类型
+ * <p>byte与short按int写入，char与枚举按字符串写入，其余不支持的类型以{@link Object#toString()}写入字符串</p>
+ *
+ * @author lostred
+ */
+public enum ValueType {
+    /**
+     * 空值，不占用数据
+     */
+    NULL,
+    /**
+     * 布尔值，1个字节
+     */
+    BOOLEAN,
+    /**
+     * 整数，zigzag变长编码
+     */
+    INT,
+    /**
+     * 长整数，zigzag变长编码
+     */
+    LONG,
+    /**
+     * 单精度浮点数，4个字节
+     */
+    FLOAT,
+    /**
+     * 双精度浮点数，8个字节
+     */
+    DOUBLE,
+    /**
+     * 字符串，变长编码的字节数与UTF-8字节
+     */
+    STRING,
+    /**
+     * 日期，距离1970-01-01T00:00:00Z的毫秒数
+     */
+    DATE,
+    /**
+     * 本地日期，距离1970-01-01的天数
+     */
+    LOCAL_DATE,
+    /**
+     * 本地日期时间，距离1970-01-01的天数与当天的纳秒数
+     */
+    LOCAL_DATE_TIME,
+    /**
+     * 大整数，十进制字符串
+     */
+    BIG_INTEGER,
+    /**
+     * 高精度小数，十进制字符串
+     */
+    BIG_DECIMAL;
+
+    private static final ValueType[] VALUES = values();
+
+    /**
+     * 根据标记获取值类型
+     *
+     * @param tag 标记
+     * @return 值类型
+     * @throws IllegalArgumentException 标记不存在时
+     */
+    static ValueType of(int tag) {
+        if (tag < 0 || tag >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown value type tag " + tag);
+        }
+        return VALUES[tag];
+    }
+
+    /**
+     * 获取值对应的值类型
+     *
+     * @param value 值
+     * @return 值类型
+     */
+    static ValueType of(Object value) {
+        if (value == null) {
+            return NULL;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return INT;
+        } else if (value instanceof Long) {
+            return LONG;
+        } else if (value instanceof Float) {
+            return FLOAT;
+        } else if (value instanceof Double) {
+            return DOUBLE;
+        } else if (value instanceof Date) {
+            return DATE;
+        } else if (value instanceof LocalDate) {
+            return LOCAL_DATE;
+        } else if (value instanceof LocalDateTime) {
+            return LOCAL_DATE_TIME;
+        } else if (value instanceof BigInteger) {
+            return BIG_INTEGER;
+        } else if (value instanceof BigDecimal) {
+            return BIG_DECIMAL;
+        }
+        return STRING;
+    }
+}
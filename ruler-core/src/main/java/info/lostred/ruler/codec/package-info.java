@@ -0,0 +1,8 @@
+/**
+ * <h2>结果编解码包</h2>
+ * <p>将引擎执行的结果编码为紧凑的二进制格式，报告中的规则以规则字典中的编号引用，
+ * 违规字段的值按类型写入，解码时可直接在ByteBuffer上逐条读取而不复制数据</p>
+ *
+ * @see info.lostred.ruler.codec.ResultCodec
+ */
+package info.lostred.ruler.codec;
@@ -0,0 +1,279 @@
+package info.lostred.ruler.compiler;
+
+import info.lostred.ruler.core.Collector;
+import info.lostred.ruler.core.Judgement;
+import info.lostred.ruler.domain.RuleDefinition;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 编译后的规则
+ * <p>由{@link RuleCompiler}生成子类，子类以直接调用getter与基本类型比较的方式实现已编译的表达式。
+ * 只对根对象类型与编译时一致的参数生效，生成的子类总是实现全部三个方法，
+ * 未编译的表达式委托给规则提供的{@link Interpreter}以SpEL解释执行。
+ * 生成的代码显式检查属性路径上的null，抛出与SpEL解释执行相同的{@link SpelEvaluationException}，
+ * 不会因为某次参数中的null而退回解释执行，也不会重复调用getter</p>
+ *
+ * @author lostred
+ */
+public abstract class CompiledRule implements Judgement, Collector {
+    /**
+     * 编译时的参数表达式
+     */
+    private final String parameterExp;
+    /**
+     * 编译时的前置条件表达式
+     */
+    private final String conditionExp;
+    /**
+     * 编译时的断定表达式
+     */
+    private final String predicateExp;
+    /**
+     * 编译时的根对象类型
+     */
+    private final Class<?> rootClass;
+    /**
+     * 未编译的表达式的解释执行器
+     */
+    private final Interpreter interpreter;
+    /**
+     * 表达式是否已编译为字节码
+     */
+    private final boolean conditionCompiled;
+    private final boolean predicateCompiled;
+    private final boolean parameterCompiled;
+
+    protected CompiledRule(RuleDefinition ruleDefinition, Class<?> rootClass, Interpreter interpreter,
+                           boolean conditionCompiled, boolean predicateCompiled, boolean parameterCompiled) {
+        this.parameterExp = ruleDefinition.getParameterExp();
+        this.conditionExp = ruleDefinition.getConditionExp();
+        this.predicateExp = ruleDefinition.getPredicateExp();
+        this.rootClass = rootClass;
+        this.interpreter = interpreter;
+        this.conditionCompiled = conditionCompiled;
+        this.predicateCompiled = predicateCompiled;
+        this.parameterCompiled = parameterCompiled;
+    }
+
+    /**
+     * 构建所有表达式都未编译的规则
+     *
+     * @param ruleDefinition 规则定义
+     * @param rootClass      根对象类型
+     * @param interpreter    解释执行器
+     * @return 编译后的规则
+     */
+    static CompiledRule interpreted(RuleDefinition ruleDefinition, Class<?> rootClass, Interpreter interpreter) {
+        return new Interpreted(ruleDefinition, rootClass, interpreter);
+    }
+
+    /**
+     * 判断是否由规则定义当前的表达式编译而来
+     *
+     * @param ruleDefinition 规则定义
+     * @return 是返回true，否则返回false
+     */
+    public boolean isCompiledFrom(RuleDefinition ruleDefinition) {
+        return Objects.equals(parameterExp, ruleDefinition.getParameterExp())
+                && Objects.equals(conditionExp, ruleDefinition.getConditionExp())
+                && Objects.equals(predicateExp, ruleDefinition.getPredicateExp());
+    }
+
+    /**
+     * 判断参数是否可以使用编译后的规则执行
+     *
+     * @param object 参数
+     * @return 参数类型与编译时的根对象类型一致时返回true，否则返回false
+     */
+    public boolean accepts(Object object) {
+        return object != null && object.getClass() == rootClass;
+    }
+
+    @Override
+    public boolean supports(EvaluationContext context, ExpressionParser parser, Object object) {
+        return this.condition(context, parser, object);
+    }
+
+    @Override
+    public boolean judge(EvaluationContext context, ExpressionParser parser, Object object) {
+        return this.predicate(context, parser, object);
+    }
+
+    @Override
+    public Map<String, Object> collectMappings(EvaluationContext context, ExpressionParser parser, Object object) {
+        return Collections.singletonMap(parameterExp, this.parameter(context, parser, object));
+    }
+
+    /**
+     * 前置条件，由生成的子类实现，未编译时委托解释执行器
+     *
+     * @param context 评估上下文
+     * @param parser  表达式解析器
+     * @param root    根对象
+     * @return 满足返回true，否则返回false
+     */
+    protected abstract boolean condition(EvaluationContext context, ExpressionParser parser, Object root);
+
+    /**
+     * 断定，由生成的子类实现，未编译时委托解释执行器
+     *
+     * @param context 评估上下文
+     * @param parser  表达式解析器
+     * @param root    根对象
+     * @return 违规返回true，否则返回false
+     */
+    protected abstract boolean predicate(EvaluationContext context, ExpressionParser parser, Object root);
+
+    /**
+     * 参数值，由生成的子类实现，未编译时委托解释执行器
+     *
+     * @param context 评估上下文
+     * @param parser  表达式解析器
+     * @param root    根对象
+     * @return 参数值
+     */
+    protected abstract Object parameter(EvaluationContext context, ExpressionParser parser, Object root);
+
+    /**
+     * 委托解释执行器执行前置条件，供生成的子类调用
+     */
+    protected final boolean interpretCondition(EvaluationContext context, ExpressionParser parser, Object root) {
+        return interpreter.condition(context, parser, root);
+    }
+
+    /**
+     * 委托解释执行器执行断定，供生成的子类调用
+     */
+    protected final boolean interpretPredicate(EvaluationContext context, ExpressionParser parser, Object root) {
+        return interpreter.predicate(context, parser, root);
+    }
+
+    /**
+     * 委托解释执行器执行参数表达式，供生成的子类调用
+     */
+    protected final Object interpretParameter(EvaluationContext context, ExpressionParser parser, Object root) {
+        return interpreter.parameter(context, parser, root);
+    }
+
+    /**
+     * 在null上读取属性时的异常，与SpEL解释执行时一致
+     *
+     * @param name 属性名
+     * @return 异常
+     */
+    protected static SpelEvaluationException propertyOnNull(String name) {
+        return new SpelEvaluationException(SpelMessage.PROPERTY_OR_FIELD_NOT_READABLE_ON_NULL, name);
+    }
+
+    /**
+     * 在null上调用无参方法时的异常，与SpEL解释执行时一致
+     *
+     * @param position 方法在表达式中的位置
+     * @param name     方法名
+     * @return 异常
+     */
+    protected static SpelEvaluationException methodOnNull(int position, String name) {
+        return new SpelEvaluationException(position, SpelMessage.METHOD_CALL_ON_NULL_OBJECT_NOT_ALLOWED, name + "()");
+    }
+
+    /**
+     * 逻辑运算的操作数为null时的异常，与SpEL解释执行时一致
+     *
+     * @return 异常
+     */
+    protected static SpelEvaluationException booleanOnNull() {
+        return new SpelEvaluationException(SpelMessage.TYPE_CONVERSION_ERROR, "null", "boolean");
+    }
+
+    public Class<?> getRootClass() {
+        return rootClass;
+    }
+
+    public boolean isConditionCompiled() {
+        return conditionCompiled;
+    }
+
+    public boolean isPredicateCompiled() {
+        return predicateCompiled;
+    }
+
+    public boolean isParameterCompiled() {
+        return parameterCompiled;
+    }
+
+    /**
+     * 判断所有表达式是否都已编译
+     *
+     * @return 是返回true，否则返回false
+     */
+    public boolean isComplete() {
+        return conditionCompiled && predicateCompiled && parameterCompiled;
+    }
+
+    /**
+     * 解释执行器
+     * <p>由规则实现，以SpEL解释执行规则定义中的表达式</p>
+     */
+    public interface Interpreter {
+        /**
+         * 解释执行前置条件
+         *
+         * @param context 评估上下文
+         * @param parser  表达式解析器
+         * @param root    根对象
+         * @return 满足返回true，否则返回false
+         */
+        boolean condition(EvaluationContext context, ExpressionParser parser, Object root);
+
+        /**
+         * 解释执行断定
+         *
+         * @param context 评估上下文
+         * @param parser  表达式解析器
+         * @param root    根对象
+         * @return 违规返回true，否则返回false
+         */
+        boolean predicate(EvaluationContext context, ExpressionParser parser, Object root);
+
+        /**
+         * 解释执行参数表达式
+         *
+         * @param context 评估上下文
+         * @param parser  表达式解析器
+         * @param root    根对象
+         * @return 参数值
+         */
+        Object parameter(EvaluationContext context, ExpressionParser parser, Object root);
+    }
+
+    /**
+     * 所有表达式都未编译的规则
+     */
+    private static final class Interpreted extends CompiledRule {
+        private Interpreted(RuleDefinition ruleDefinition, Class<?> rootClass, Interpreter interpreter) {
+            super(ruleDefinition, rootClass, interpreter, false, false, false);
+        }
+
+        @Override
+        protected boolean condition(EvaluationContext context, ExpressionParser parser, Object root) {
+            return this.interpretCondition(context, parser, root);
+        }
+
+        @Override
+        protected boolean predicate(EvaluationContext context, ExpressionParser parser, Object root) {
+            return this.interpretPredicate(context, parser, root);
+        }
+
+        @Override
+        protected Object parameter(EvaluationContext context, ExpressionParser parser, Object root) {
+            return this.interpretParameter(context, parser, root);
+        }
+    }
+}
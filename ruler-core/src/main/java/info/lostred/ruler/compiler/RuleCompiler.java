@@ -0,0 +1,660 @@
+package info.lostred.ruler.compiler;
+
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.rule.AbstractRule;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.*;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
+
+/**
+ * 规则编译器
+ * <p>将规则定义中的表达式编译为{@link CompiledRule}的子类，支持的表达式子集如下：</p>
+ * <ul>
+ *     <li>从根对象开始的属性与无参方法调用链，如"area.country"、"certNo.length()"</li>
+ *     <li>整数、长整数、布尔、字符串与null字面量</li>
+ *     <li>整数类型(含包装类型)之间的比较，字符串与布尔值的相等比较，与null的相等比较</li>
+ *     <li>与、或、非运算</li>
+ * </ul>
+ * <p>变量、函数、bean引用、集合下标、安全导航等其他表达式不编译，生成的方法委托规则以SpEL解释执行。
+ * 比较与空值的语义与SpEL一致，属性路径上出现null时抛出与SpEL相同的异常；
+ * getter抛出的异常直接抛出，不会重新执行。同一类加载器下的根对象类型共用一个生成类的类加载器</p>
+ *
+ * @author lostred
+ */
+public class RuleCompiler implements Opcodes {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final String COMPILED_RULE = Type.getInternalName(CompiledRule.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(RuleDefinition.class), Type.getType(Class.class), Type.getType(CompiledRule.Interpreter.class),
+            Type.BOOLEAN_TYPE, Type.BOOLEAN_TYPE, Type.BOOLEAN_TYPE);
+    private static final String BOOLEAN_METHOD_DESCRIPTOR = Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+            Type.getType(EvaluationContext.class), Type.getType(ExpressionParser.class), Type.getType(Object.class));
+    private static final String OBJECT_METHOD_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class),
+            Type.getType(EvaluationContext.class), Type.getType(ExpressionParser.class), Type.getType(Object.class));
+    private static final String EXCEPTION_DESCRIPTOR = "Lorg/springframework/expression/spel/SpelEvaluationException;";
+    /**
+     * 根对象类型的类加载器与生成类的类加载器的映射，生成类不再被引用时类加载器可被回收
+     */
+    private static final Map<ClassLoader, WeakReference<GeneratedClassLoader>> CLASS_LOADERS = new WeakHashMap<>();
+    /**
+     * 表示null字面量的类型
+     */
+    private static final Class<?> NULL_TYPE = Void.class;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    /**
+     * 编译规则定义
+     * <p>规则类覆盖了某个方法时，该方法对应的表达式不编译。数组参数的规则不编译，
+     * 根对象为Map或可迭代的树模型(如JsonNode)时属性由专门的属性访问器读取，也不编译</p>
+     *
+     * @param ruleDefinition 规则定义
+     * @param rootClass      根对象类型
+     * @param interpreter    未编译的表达式的解释执行器
+     * @return 编译后的规则，没有可编译的表达式或生成的类无法加载时返回所有表达式都未编译的规则
+     */
+    public CompiledRule compile(RuleDefinition ruleDefinition, Class<?> rootClass, CompiledRule.Interpreter interpreter) {
+        String parameterExp = ruleDefinition.getParameterExp();
+        if (!Modifier.isPublic(rootClass.getModifiers())
+                || Map.class.isAssignableFrom(rootClass) || Iterable.class.isAssignableFrom(rootClass)
+                || (parameterExp != null && parameterExp.contains(INDEX_LABEL))) {
+            return CompiledRule.interpreted(ruleDefinition, rootClass, interpreter);
+        }
+        Class<? extends AbstractRule> ruleClass = ruleDefinition.getRuleClass();
+        SpelNode condition = overrides(ruleClass, "supports") ? null :
+                this.analyze(ruleDefinition.getConditionExp(), rootClass, true);
+        SpelNode predicate = overrides(ruleClass, "judge") ? null :
+                this.analyze(ruleDefinition.getPredicateExp(), rootClass, true);
+        SpelNode parameter = overrides(ruleClass, "collectMappings") ? null :
+                this.analyze(parameterExp, rootClass, false);
+        if (condition == null && predicate == null && parameter == null) {
+            return CompiledRule.interpreted(ruleDefinition, rootClass, interpreter);
+        }
+        try {
+            String className = COMPILED_RULE + "$$Generated$$" + COUNTER.incrementAndGet();
+            byte[] bytes = generate(className, rootClass, condition, predicate, parameter);
+            Class<?> generatedClass = classLoader(rootClass.getClassLoader())
+                    .define(className.replace('/', '.'), bytes);
+            Constructor<?> constructor = generatedClass.getConstructor(RuleDefinition.class, Class.class,
+                    CompiledRule.Interpreter.class, boolean.class, boolean.class, boolean.class);
+            return (CompiledRule) constructor.newInstance(ruleDefinition, rootClass, interpreter,
+                    condition != null, predicate != null, parameter != null);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return CompiledRule.interpreted(ruleDefinition, rootClass, interpreter);
+        }
+    }
+
+    /**
+     * 获取根对象类型的类加载器对应的生成类的类加载器，不存在或已被回收时创建
+     *
+     * @param parent 根对象类型的类加载器
+     * @return 生成类的类加载器
+     */
+    private static GeneratedClassLoader classLoader(ClassLoader parent) {
+        synchronized (CLASS_LOADERS) {
+            WeakReference<GeneratedClassLoader> reference = CLASS_LOADERS.get(parent);
+            GeneratedClassLoader classLoader = reference == null ? null : reference.get();
+            if (classLoader == null) {
+                classLoader = new GeneratedClassLoader(parent);
+                CLASS_LOADERS.put(parent, new WeakReference<>(classLoader));
+            }
+            return classLoader;
+        }
+    }
+
+    /**
+     * 判断规则类是否覆盖了抽象规则的方法
+     *
+     * @param ruleClass  规则类
+     * @param methodName 方法名
+     * @return 覆盖时返回true，否则返回false
+     */
+    private static boolean overrides(Class<? extends AbstractRule> ruleClass, String methodName) {
+        if (ruleClass == null) {
+            return false;
+        }
+        try {
+            Method method = ruleClass.getMethod(methodName,
+                    EvaluationContext.class, ExpressionParser.class, Object.class);
+            return method.getDeclaringClass() != AbstractRule.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 解析表达式并以空生成的方式检查表达式是否可以编译
+     *
+     * @param expressionString 表达式字符串
+     * @param rootClass        根对象类型
+     * @param bool             是否为布尔表达式
+     * @return 可以编译时返回语法树，否则返回null
+     */
+    private SpelNode analyze(String expressionString, Class<?> rootClass, boolean bool) {
+        if (expressionString == null || expressionString.trim().isEmpty()
+                || expressionString.contains("?.")) {
+            return null;
+        }
+        try {
+            SpelNode ast = parser.parseRaw(expressionString).getAST();
+            Generator generator = new Generator(new MethodVisitor(ASM7) {
+            }, rootClass);
+            if (bool) {
+                generator.result(ast);
+            } else {
+                generator.boxed(ast);
+            }
+            return ast;
+        } catch (ParseException | UnsupportedExpressionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成编译后的规则类的字节码
+     */
+    private static byte[] generate(String className, Class<?> rootClass,
+                                   SpelNode condition, SpelNode predicate, SpelNode parameter) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, COMPILED_RULE, null);
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitVarInsn(ILOAD, 4);
+        mv.visitVarInsn(ILOAD, 5);
+        mv.visitVarInsn(ILOAD, 6);
+        mv.visitMethodInsn(INVOKESPECIAL, COMPILED_RULE, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        generateMethod(cw, rootClass, "condition", condition, true);
+        generateMethod(cw, rootClass, "predicate", predicate, true);
+        generateMethod(cw, rootClass, "parameter", parameter, false);
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 生成编译后的规则的方法，表达式未编译时委托解释执行器
+     *
+     * @param cw        类生成器
+     * @param rootClass 根对象类型
+     * @param name      方法名
+     * @param ast       表达式的语法树，未编译时为null
+     * @param bool      是否为布尔表达式
+     */
+    private static void generateMethod(ClassWriter cw, Class<?> rootClass, String name, SpelNode ast, boolean bool) {
+        String descriptor = bool ? BOOLEAN_METHOD_DESCRIPTOR : OBJECT_METHOD_DESCRIPTOR;
+        MethodVisitor mv = cw.visitMethod(ACC_PROTECTED, name, descriptor, null, null);
+        mv.visitCode();
+        if (ast == null) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitVarInsn(ALOAD, 3);
+            String interpretName = "interpret" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            mv.visitMethodInsn(INVOKEVIRTUAL, COMPILED_RULE, interpretName, descriptor, false);
+        } else if (bool) {
+            new Generator(mv, rootClass).result(ast);
+        } else {
+            new Generator(mv, rootClass).boxed(ast);
+        }
+        mv.visitInsn(bool ? IRETURN : ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * 表达式不支持编译
+     */
+    private static class UnsupportedExpressionException extends RuntimeException {
+        UnsupportedExpressionException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * 生成类的类加载器，先从根对象类型的类加载器加载，找不到时从ruler的类加载器加载。
+     * 同一父类加载器下的所有生成类由同一个实例定义
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return CompiledRule.class.getClassLoader().loadClass(name);
+        }
+
+        synchronized Class<?> define(String name, byte[] bytes) {
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * 方法体生成器，根对象为局部变量3，结果留在操作数栈顶
+     */
+    private static class Generator {
+        private final MethodVisitor mv;
+        private final Class<?> rootClass;
+        private int nextLocal = 4;
+
+        Generator(MethodVisitor mv, Class<?> rootClass) {
+            this.mv = mv;
+            this.rootClass = rootClass;
+        }
+
+        /**
+         * 生成条件或断定的结果，与SpEL以Boolean类型取值后判断是否为true一致
+         */
+        void result(SpelNode node) {
+            Class<?> type = this.value(node);
+            if (type == Boolean.class) {
+                Label isNull = new Label();
+                Label end = new Label();
+                mv.visitInsn(DUP);
+                mv.visitJumpInsn(IFNULL, isNull);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(isNull);
+                mv.visitInsn(POP);
+                mv.visitInsn(ICONST_0);
+                mv.visitLabel(end);
+            } else if (type != boolean.class) {
+                throw new UnsupportedExpressionException("Not a boolean expression: " + type);
+            }
+        }
+
+        /**
+         * 生成参数值，基本类型装箱
+         */
+        void boxed(SpelNode node) {
+            Class<?> type = this.value(node);
+            if (type.isPrimitive()) {
+                Class<?> wrapper = wrapper(type);
+                mv.visitMethodInsn(INVOKESTATIC, Type.getInternalName(wrapper), "valueOf",
+                        Type.getMethodDescriptor(Type.getType(wrapper), Type.getType(type)), false);
+            }
+        }
+
+        /**
+         * 生成布尔值，栈顶为int类型的0或1
+         */
+        void bool(SpelNode node) {
+            Class<?> type = this.value(node);
+            if (type == Boolean.class) {
+                Label nonNull = new Label();
+                mv.visitInsn(DUP);
+                mv.visitJumpInsn(IFNONNULL, nonNull);
+                mv.visitMethodInsn(INVOKESTATIC, COMPILED_RULE, "booleanOnNull", "()" + EXCEPTION_DESCRIPTOR, false);
+                mv.visitInsn(ATHROW);
+                mv.visitLabel(nonNull);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
+            } else if (type != boolean.class) {
+                throw new UnsupportedExpressionException("Not a boolean expression: " + type);
+            }
+        }
+
+        /**
+         * 生成表达式的值
+         *
+         * @return 值的静态类型
+         */
+        Class<?> value(SpelNode node) {
+            if (node instanceof BooleanLiteral) {
+                mv.visitInsn((Boolean) ((BooleanLiteral) node).getLiteralValue().getValue() ? ICONST_1 : ICONST_0);
+                return boolean.class;
+            } else if (node instanceof IntLiteral) {
+                mv.visitLdcInsn(((IntLiteral) node).getLiteralValue().getValue());
+                return int.class;
+            } else if (node instanceof LongLiteral) {
+                mv.visitLdcInsn(((LongLiteral) node).getLiteralValue().getValue());
+                return long.class;
+            } else if (node instanceof StringLiteral) {
+                mv.visitLdcInsn(((StringLiteral) node).getLiteralValue().getValue());
+                return String.class;
+            } else if (node instanceof NullLiteral) {
+                mv.visitInsn(ACONST_NULL);
+                return NULL_TYPE;
+            } else if (node instanceof PropertyOrFieldReference || node instanceof MethodReference) {
+                this.loadRoot();
+                return this.member(node, rootClass);
+            } else if (node instanceof CompoundExpression) {
+                this.loadRoot();
+                Class<?> type = rootClass;
+                for (int i = 0; i < node.getChildCount(); i++) {
+                    if (i > 0 && !type.isPrimitive()) {
+                        this.checkNull(node.getChild(i));
+                    }
+                    type = this.member(node.getChild(i), type);
+                }
+                return type;
+            } else if (node instanceof OpAnd || node instanceof OpOr) {
+                Label shortCircuit = new Label();
+                Label end = new Label();
+                boolean and = node instanceof OpAnd;
+                this.bool(node.getChild(0));
+                mv.visitJumpInsn(and ? IFEQ : IFNE, shortCircuit);
+                this.bool(node.getChild(1));
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(shortCircuit);
+                mv.visitInsn(and ? ICONST_0 : ICONST_1);
+                mv.visitLabel(end);
+                return boolean.class;
+            } else if (node instanceof OperatorNot) {
+                this.bool(node.getChild(0));
+                mv.visitInsn(ICONST_1);
+                mv.visitInsn(IXOR);
+                return boolean.class;
+            } else if (node instanceof OpEQ || node instanceof OpNE || node instanceof OpLT
+                    || node instanceof OpLE || node instanceof OpGT || node instanceof OpGE) {
+                this.compare((Operator) node);
+                return boolean.class;
+            }
+            throw new UnsupportedExpressionException("Unsupported node: " + node.getClass().getSimpleName());
+        }
+
+        private void loadRoot() {
+            mv.visitVarInsn(ALOAD, 3);
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(rootClass));
+        }
+
+        /**
+         * 栈顶的对象为null时抛出与SpEL在null上读取属性或调用方法时相同的异常
+         *
+         * @param node 在栈顶对象上读取的属性或调用的方法
+         */
+        private void checkNull(SpelNode node) {
+            Label nonNull = new Label();
+            mv.visitInsn(DUP);
+            mv.visitJumpInsn(IFNONNULL, nonNull);
+            if (node instanceof MethodReference) {
+                mv.visitLdcInsn(node.getStartPosition());
+                mv.visitLdcInsn(((MethodReference) node).getName());
+                mv.visitMethodInsn(INVOKESTATIC, COMPILED_RULE, "methodOnNull",
+                        "(ILjava/lang/String;)" + EXCEPTION_DESCRIPTOR, false);
+            } else if (node instanceof PropertyOrFieldReference) {
+                mv.visitLdcInsn(((PropertyOrFieldReference) node).getName());
+                mv.visitMethodInsn(INVOKESTATIC, COMPILED_RULE, "propertyOnNull",
+                        "(Ljava/lang/String;)" + EXCEPTION_DESCRIPTOR, false);
+            } else {
+                throw new UnsupportedExpressionException("Unsupported node: " + node.getClass().getSimpleName());
+            }
+            mv.visitInsn(ATHROW);
+            mv.visitLabel(nonNull);
+        }
+
+        /**
+         * 在栈顶的对象上读取属性或调用无参方法
+         *
+         * @return 结果的静态类型
+         */
+        private Class<?> member(SpelNode node, Class<?> owner) {
+            if (owner.isPrimitive() || owner == NULL_TYPE || !Modifier.isPublic(owner.getModifiers())) {
+                throw new UnsupportedExpressionException("Inaccessible owner: " + owner);
+            }
+            if (node instanceof PropertyOrFieldReference) {
+                PropertyOrFieldReference reference = (PropertyOrFieldReference) node;
+                Method getter = findGetter(owner, reference.getName());
+                if (getter != null) {
+                    return this.invoke(owner, getter);
+                }
+                try {
+                    Field field = owner.getField(reference.getName());
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        mv.visitFieldInsn(GETFIELD, Type.getInternalName(owner), field.getName(),
+                                Type.getDescriptor(field.getType()));
+                        return field.getType();
+                    }
+                } catch (NoSuchFieldException ignored) {
+                }
+                throw new UnsupportedExpressionException("No property: " + reference.getName());
+            } else if (node instanceof MethodReference) {
+                MethodReference reference = (MethodReference) node;
+                if (reference.getChildCount() > 0) {
+                    throw new UnsupportedExpressionException("Unsupported method: " + reference.getName());
+                }
+                try {
+                    Method method = owner.getMethod(reference.getName());
+                    if (!Modifier.isStatic(method.getModifiers())) {
+                        return this.invoke(owner, method);
+                    }
+                } catch (NoSuchMethodException ignored) {
+                }
+                throw new UnsupportedExpressionException("No method: " + reference.getName());
+            }
+            throw new UnsupportedExpressionException("Unsupported node: " + node.getClass().getSimpleName());
+        }
+
+        private Class<?> invoke(Class<?> owner, Method method) {
+            mv.visitMethodInsn(owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL,
+                    Type.getInternalName(owner), method.getName(), Type.getMethodDescriptor(method),
+                    owner.isInterface());
+            return method.getReturnType();
+        }
+
+        /**
+         * 生成比较运算
+         * <p>整数类型比较时null小于任何非null值，两个null相等，与SpEL的标准类型比较器一致</p>
+         */
+        private void compare(Operator operator) {
+            SpelNode left = operator.getLeftOperand();
+            SpelNode right = operator.getRightOperand();
+            boolean equality = operator instanceof OpEQ || operator instanceof OpNE;
+            if (left instanceof NullLiteral || right instanceof NullLiteral) {
+                if (!equality) {
+                    throw new UnsupportedExpressionException("Ordering against null");
+                }
+                Class<?> type = this.value(left instanceof NullLiteral ? right : left);
+                if (type.isPrimitive()) {
+                    throw new UnsupportedExpressionException("Primitive compared with null");
+                }
+                this.jump(operator instanceof OpEQ ? IFNULL : IFNONNULL);
+                return;
+            }
+            Class<?> leftType = this.value(left);
+            int leftLocal = this.store(leftType);
+            Class<?> rightType = this.value(right);
+            int rightLocal = this.store(rightType);
+            if (isIntegral(leftType) && isIntegral(rightType)) {
+                Label done = new Label();
+                if (!leftType.isPrimitive()) {
+                    Label nonNull = new Label();
+                    mv.visitVarInsn(ALOAD, leftLocal);
+                    mv.visitJumpInsn(IFNONNULL, nonNull);
+                    if (!rightType.isPrimitive()) {
+                        Label rightNonNull = new Label();
+                        mv.visitVarInsn(ALOAD, rightLocal);
+                        mv.visitJumpInsn(IFNONNULL, rightNonNull);
+                        mv.visitInsn(ICONST_0);
+                        mv.visitJumpInsn(GOTO, done);
+                        mv.visitLabel(rightNonNull);
+                    }
+                    mv.visitInsn(ICONST_M1);
+                    mv.visitJumpInsn(GOTO, done);
+                    mv.visitLabel(nonNull);
+                }
+                if (!rightType.isPrimitive()) {
+                    Label nonNull = new Label();
+                    mv.visitVarInsn(ALOAD, rightLocal);
+                    mv.visitJumpInsn(IFNONNULL, nonNull);
+                    mv.visitInsn(ICONST_1);
+                    mv.visitJumpInsn(GOTO, done);
+                    mv.visitLabel(nonNull);
+                }
+                this.loadLong(leftType, leftLocal);
+                this.loadLong(rightType, rightLocal);
+                mv.visitInsn(LCMP);
+                mv.visitLabel(done);
+                if (operator instanceof OpEQ) {
+                    this.jump(IFEQ);
+                } else if (operator instanceof OpNE) {
+                    this.jump(IFNE);
+                } else if (operator instanceof OpLT) {
+                    this.jump(IFLT);
+                } else if (operator instanceof OpLE) {
+                    this.jump(IFLE);
+                } else if (operator instanceof OpGT) {
+                    this.jump(IFGT);
+                } else {
+                    this.jump(IFGE);
+                }
+            } else if (equality && leftType == String.class && rightType == String.class) {
+                mv.visitVarInsn(ALOAD, leftLocal);
+                mv.visitVarInsn(ALOAD, rightLocal);
+                mv.visitMethodInsn(INVOKESTATIC, "java/util/Objects", "equals",
+                        "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+                this.jump(operator instanceof OpEQ ? IFNE : IFEQ);
+            } else if (equality && leftType == boolean.class && rightType == boolean.class) {
+                mv.visitVarInsn(ILOAD, leftLocal);
+                mv.visitVarInsn(ILOAD, rightLocal);
+                Label isTrue = new Label();
+                Label end = new Label();
+                mv.visitJumpInsn(operator instanceof OpEQ ? IF_ICMPEQ : IF_ICMPNE, isTrue);
+                mv.visitInsn(ICONST_0);
+                mv.visitJumpInsn(GOTO, end);
+                mv.visitLabel(isTrue);
+                mv.visitInsn(ICONST_1);
+                mv.visitLabel(end);
+            } else {
+                throw new UnsupportedExpressionException("Unsupported comparison: " + leftType + ", " + rightType);
+            }
+        }
+
+        /**
+         * 根据栈顶的值跳转，生成int类型的0或1
+         */
+        private void jump(int opcode) {
+            Label isTrue = new Label();
+            Label end = new Label();
+            mv.visitJumpInsn(opcode, isTrue);
+            mv.visitInsn(ICONST_0);
+            mv.visitJumpInsn(GOTO, end);
+            mv.visitLabel(isTrue);
+            mv.visitInsn(ICONST_1);
+            mv.visitLabel(end);
+        }
+
+        /**
+         * 将栈顶的值保存到新的局部变量
+         *
+         * @return 局部变量的下标
+         */
+        private int store(Class<?> type) {
+            int local = this.nextLocal;
+            if (type == long.class || type == double.class) {
+                mv.visitVarInsn(type == long.class ? LSTORE : DSTORE, local);
+                this.nextLocal += 2;
+            } else if (type == float.class) {
+                mv.visitVarInsn(FSTORE, local);
+                this.nextLocal++;
+            } else if (type.isPrimitive()) {
+                mv.visitVarInsn(ISTORE, local);
+                this.nextLocal++;
+            } else {
+                mv.visitVarInsn(ASTORE, local);
+                this.nextLocal++;
+            }
+            return local;
+        }
+
+        /**
+         * 将整数类型的局部变量以long类型加载到栈顶，包装类型需已确认非null
+         */
+        private void loadLong(Class<?> type, int local) {
+            if (type == long.class) {
+                mv.visitVarInsn(LLOAD, local);
+            } else if (type.isPrimitive()) {
+                mv.visitVarInsn(ILOAD, local);
+                mv.visitInsn(I2L);
+            } else {
+                mv.visitVarInsn(ALOAD, local);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", "longValue", "()J", false);
+            }
+        }
+
+        private static boolean isIntegral(Class<?> type) {
+            return type == int.class || type == long.class || type == short.class || type == byte.class
+                    || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class;
+        }
+
+        private static Class<?> wrapper(Class<?> type) {
+            if (type == int.class) {
+                return Integer.class;
+            } else if (type == long.class) {
+                return Long.class;
+            } else if (type == boolean.class) {
+                return Boolean.class;
+            } else if (type == short.class) {
+                return Short.class;
+            } else if (type == byte.class) {
+                return Byte.class;
+            } else if (type == char.class) {
+                return Character.class;
+            } else if (type == float.class) {
+                return Float.class;
+            } else if (type == double.class) {
+                return Double.class;
+            }
+            throw new UnsupportedExpressionException("Unsupported type: " + type);
+        }
+
+        /**
+         * 按ReflectivePropertyAccessor的规则查找公共的getter
+         */
+        private static Method findGetter(Class<?> owner, String name) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            String[] suffixes = name.length() > 1 && Character.isUpperCase(name.charAt(1)) ?
+                    new String[]{capitalized, name} : new String[]{capitalized};
+            for (String suffix : suffixes) {
+                Method method = findMethod(owner, "get" + suffix);
+                if (method != null) {
+                    return method;
+                }
+                method = findMethod(owner, "is" + suffix);
+                if (method != null && (method.getReturnType() == boolean.class
+                        || method.getReturnType() == Boolean.class)) {
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        private static Method findMethod(Class<?> owner, String name) {
+            try {
+                Method method = owner.getMethod(name);
+                return Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class ?
+                        null : method;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * <h2>规则编译包</h2>
+ * <p>将规则定义中的表达式编译为字节码生成的判断器与收集器，不支持的表达式回退为SpEL解释执行</p>
+ *
+ * @see info.lostred.ruler.compiler.RuleCompiler
+ * @see info.lostred.ruler.compiler.CompiledRule
+ */
+package info.lostred.ruler.compiler;
@@ -0,0 +1,29 @@
+package info.lostred.ruler.constant;
+
+/**
+ * 表达式编译状态
+ *
+ * @author lostred
+ */
+public enum CompileStatus {
+    /**
+     * 解释执行
+     * <p>编译器关闭，或表达式尚未满足编译条件</p>
+     */
+    INTERPRETED,
+    /**
+     * 已编译
+     * <p>表达式已编译为字节码执行</p>
+     */
+    COMPILED,
+    /**
+     * 回退
+     * <p>表达式无法编译，回退为解释执行</p>
+     */
+    FALLBACK,
+    /**
+     * 失败
+     * <p>表达式编译后执行失败，已回退为解释执行</p>
+     */
+    FAILED
+}
@@ -10,6 +10,10 @@ public enum EngineType {
      * 规则引擎将执行完所有的规则
      */
     COMPLETE,
+    /**
+     * 规则引擎将执行完所有的规则，规则被分段后在ForkJoinPool中并行执行
+     */
+    PARALLEL_COMPLETE,
     /**
      * 规则引擎在生成非法报告时将结束执行
      */
@@ -9,4 +9,6 @@ public final class SpELConstants {
     public static final String INDEX_LABEL = "[#i]";
     public static final String INDEX = "#i";
     public static final String INDEX_KEY = "i";
+    public static final String ELEMENT = "#element";
+    public static final String ELEMENT_KEY = "element";
 }
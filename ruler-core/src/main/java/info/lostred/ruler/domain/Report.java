@@ -4,6 +4,7 @@ import java.util.*;
 
 /**
  * 规则执行报告
+ * <p>大多数报告只有一个违规字段，违规字段的映射在添加第二个字段时才创建哈希表</p>
  *
  * @author lostred
  */
@@ -15,7 +16,7 @@ public class Report {
     /**
      * 违规字段与值的映射
      */
-    private final Map<String, Object> errors;
+    private Map<String, Object> errors;
 
     public static Report of(RuleDefinition ruleDefinition) {
         return new Report(ruleDefinition);
@@ -23,7 +24,7 @@ public class Report {
 
     private Report(RuleDefinition ruleDefinition) {
         this.ruleDefinition = ruleDefinition;
-        this.errors = new HashMap<>();
+        this.errors = Collections.emptyMap();
     }
 
     /**
@@ -34,7 +35,14 @@ public class Report {
      * @return 返回调用对象
      */
     public Report putError(String fieldName, Object value) {
-        this.errors.put(fieldName, value);
+        if (this.errors.isEmpty() || this.errors.size() == 1 && this.errors.containsKey(fieldName)) {
+            this.errors = Collections.singletonMap(fieldName, value);
+        } else {
+            if (!(this.errors instanceof HashMap)) {
+                this.errors = new HashMap<>(this.errors);
+            }
+            this.errors.put(fieldName, value);
+        }
         return this;
     }
 
@@ -46,7 +54,7 @@ public class Report {
      */
     public Report putError(Set<Map.Entry<String, Object>> entries) {
         for (Map.Entry<String, Object> entry : entries) {
-            this.errors.put(entry.getKey(), entry.getValue());
+            this.putError(entry.getKey(), entry.getValue());
         }
         return this;
     }
@@ -58,7 +66,9 @@ public class Report {
      * @return 返回调用对象
      */
     public Report putError(Map<String, Object> map) {
-        this.errors.putAll(map);
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            this.putError(entry.getKey(), entry.getValue());
+        }
         return this;
     }
 
@@ -67,7 +77,7 @@ public class Report {
     }
 
     public Map<String, Object> getErrors() {
-        return Collections.unmodifiableMap(this.errors);
+        return this.errors instanceof HashMap ? Collections.unmodifiableMap(this.errors) : this.errors;
     }
 
     @Override
@@ -9,6 +9,8 @@ import java.util.Map;
 
 /**
  * 引擎执行的结果
+ * <p>可疑与违规字段数量在添加报告时同步累计。报告集合在添加第一份报告时才创建，
+ * 合格的结果不额外分配集合，调用方仍可继续添加报告</p>
  *
  * @author lostred
  */
@@ -29,6 +31,10 @@ public class Result implements Serializable {
      * 校验报告集合
      */
     private Map<String, Report> reports;
+    /**
+     * 执行时使用的规则快照版本
+     */
+    private long version;
 
     private Result() {
     }
@@ -40,9 +46,20 @@ public class Result implements Serializable {
      * @see Grade
      */
     public static Result of() {
+        return of(0L);
+    }
+
+    /**
+     * 构建一个默认的校验结果，并记录执行时使用的规则快照版本
+     *
+     * @param version 规则快照版本
+     * @return 校验结果
+     */
+    public static Result of(long version) {
         Result result = new Result();
         result.grade = Grade.QUALIFIED;
-        result.reports = new HashMap<>();
+        result.reports = Collections.emptyMap();
+        result.version = version;
         return result;
     }
 
@@ -52,12 +69,49 @@ public class Result implements Serializable {
      * @param report 报告
      */
     public void addReport(Report report) {
+        if (this.reports.isEmpty()) {
+            this.reports = new HashMap<>();
+        }
         String ruleCode = report.getRuleDefinition().getRuleCode();
+        Grade grade = report.getRuleDefinition().getGrade();
         Report existed = this.reports.putIfAbsent(ruleCode, report);
-        if (existed != null) {
+        if (existed == null) {
+            this.count(grade, report.getErrors().size());
+        } else {
+            int size = existed.getErrors().size();
             existed.putError(report.getErrors());
+            this.count(grade, existed.getErrors().size() - size);
+        }
+        this.updateGrade(grade);
+    }
+
+    /**
+     * 累计可疑或违规字段数量
+     *
+     * @param grade 严重等级
+     * @param delta 新增的字段数量
+     */
+    private void count(Grade grade, int delta) {
+        if (Grade.ILLEGAL.equals(grade)) {
+            this.illegalCount += delta;
+        } else if (Grade.SUSPECTED.equals(grade)) {
+            this.suspectedCount += delta;
         }
-        this.updateGrade(report.getRuleDefinition().getGrade());
+    }
+
+    /**
+     * 合并另一个结果的报告与严重等级
+     * <p>按调用顺序依次合并，可保证合并结果与顺序执行时一致</p>
+     *
+     * @param other 另一个结果
+     * @return 返回调用对象
+     */
+    public Result merge(Result other) {
+        for (Report report : other.reports.values()) {
+            this.addReport(report);
+        }
+        this.updateGrade(other.grade);
+        return this;
     }
 
     /**
@@ -75,7 +129,8 @@ public class Result implements Serializable {
     }
 
     /**
-     * 统计可疑与违规字段数量
+     * 重新统计可疑与违规字段数量
+     * <p>数量已在添加报告时累计，只有在报告被直接修改后才需要调用</p>
      */
     public void statistic() {
         this.suspectedCount = reports.values().stream()
@@ -100,8 +155,12 @@ public class Result implements Serializable {
         return illegalCount;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public Map<String, Report> getReports() {
-        return Collections.unmodifiableMap(this.reports);
+        return this.reports.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(this.reports);
     }
 
     @Override
@@ -111,6 +170,7 @@ public class Result implements Serializable {
                 ", suspectedCount=" + suspectedCount +
                 ", illegalCount=" + illegalCount +
                 ", reports=" + reports +
+                ", version=" + version +
                 '}';
     }
 }
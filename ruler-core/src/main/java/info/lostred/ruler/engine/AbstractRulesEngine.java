@@ -1,24 +1,46 @@
 package info.lostred.ruler.engine;
 
+import info.lostred.ruler.codec.RuleDictionary;
+import info.lostred.ruler.constant.CompileStatus;
+import info.lostred.ruler.constant.Grade;
 import info.lostred.ruler.domain.Report;
 import info.lostred.ruler.domain.Result;
 import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.expression.PreparedExpressions;
+import info.lostred.ruler.factory.DomainFactory;
 import info.lostred.ruler.factory.RuleFactory;
+import info.lostred.ruler.interceptor.RuleInterceptor;
 import info.lostred.ruler.rule.AbstractRule;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static info.lostred.ruler.constant.SpELConstants.ELEMENT_KEY;
 import static info.lostred.ruler.constant.SpELConstants.INDEX_KEY;
-import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
 
 /**
  * 抽象规则引擎
@@ -26,6 +48,14 @@ import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
  * @author lostred
  */
 public abstract class AbstractRulesEngine implements RulesEngine {
+    /**
+     * 类路径中是否存在Jackson，存在时支持直接校验JsonNode
+     */
+    private static final boolean JSON_NODE_PRESENT = isPresent("com.fasterxml.jackson.databind.JsonNode");
+    /**
+     * 默认执行器的队列长度
+     */
+    private static final int DEFAULT_EXECUTOR_QUEUE_CAPACITY = 1024;
     private final RuleFactory ruleFactory;
     /**
      * 业务类型
@@ -44,9 +74,61 @@ public abstract class AbstractRulesEngine implements RulesEngine {
      */
     protected final List<Method> globalFunctions;
     /**
-     * 规则引擎中的规则集合
+     * 规则引擎中的规则快照
+     * <p>规则集合变化时整体替换</p>
+     */
+    protected volatile RuleSnapshot snapshot = RuleSnapshot.empty();
+    /**
+     * 执行计划
+     * <p>规则集合变化时重新构建</p>
+     */
+    protected volatile ExecutionPlan plan;
+    /**
+     * 评估上下文模板
+     * <p>引擎创建时注册bean解析器与全局函数，构建后不再修改，由所有执行上下文共享。
+     * 配置变化时重新构建并整体替换</p>
+     */
+    private volatile StandardEvaluationContext contextTemplate;
+    /**
+     * 是否在单次执行中缓存读取的属性值
+     */
+    private volatile boolean propertyCacheEnabled;
+    /**
+     * 领域模型工厂生成的属性访问器
+     */
+    private volatile List<PropertyAccessor> domainPropertyAccessors = Collections.emptyList();
+    /**
+     * 异步执行使用的执行器，为null时使用引擎创建的默认执行器
+     */
+    private volatile Executor executor;
+    /**
+     * 引擎创建的默认执行器，首次异步执行时创建，在{@link #shutdown()}时关闭
+     */
+    private volatile ThreadPoolExecutor defaultExecutor;
+    /**
+     * 规则编号与执行统计的映射，开启自适应排序后记录
+     */
+    private final Map<String, RuleStatistics> statistics = new ConcurrentHashMap<>();
+    /**
+     * 自适应排序的周期，即每执行多少次重新排序一次，小于等于0时关闭自适应排序
+     */
+    private volatile int adaptiveInterval;
+    /**
+     * 开启自适应排序后的执行次数
      */
-    protected final List<AbstractRule> rules = new CopyOnWriteArrayList<>();
+    private final AtomicLong executionCount = new AtomicLong();
+    /**
+     * 规则拦截器，数组整体替换，为空时规则直接执行
+     */
+    private volatile RuleInterceptor[] interceptors = new RuleInterceptor[0];
+    /**
+     * 当前规则快照的规则字典，首次获取时构建
+     */
+    private volatile RuleDictionary ruleDictionary;
+    /**
+     * 构建执行计划的锁，周期性的重新排序在锁被占用时跳过
+     */
+    private final ReentrantLock planLock = new ReentrantLock();
 
     public AbstractRulesEngine(RuleFactory ruleFactory, String businessType,
                                BeanResolver beanResolver, ExpressionParser parser, List<Method> globalFunctions) {
@@ -55,46 +137,220 @@ public abstract class AbstractRulesEngine implements RulesEngine {
         this.beanResolver = beanResolver;
         this.parser = parser;
         this.globalFunctions = globalFunctions;
+        this.contextTemplate = this.createContextTemplate();
         this.reloadRules();
     }
 
     /**
-     * 针对数组参数执行
+     * 创建评估上下文模板
+     * <p>属性访问器依次为领域模型属性访问器、Map与JsonNode属性访问器、默认的反射属性访问器</p>
      *
-     * @param context 评估上下文
-     * @param array   数组参数
-     * @param rule    规则
-     * @return 结果，数组中的所有元素有一个不通过时返回true，否则返回false
+     * @return 评估上下文模板
      */
-    protected boolean executeForArray(StandardEvaluationContext context, Object[] array,
-                                      AbstractRule rule) {
-        if (array != null) {
-            boolean flag = false;
+    protected StandardEvaluationContext createContextTemplate() {
+        StandardEvaluationContext template = new StandardEvaluationContext();
+        this.setBeanResolver(template);
+        this.registerFunctions(template, globalFunctions);
+        List<PropertyAccessor> propertyAccessors = new ArrayList<>(this.domainPropertyAccessors);
+        propertyAccessors.add(new MapPropertyAccessor());
+        if (JSON_NODE_PRESENT) {
+            propertyAccessors.add(new JsonNodePropertyAccessor());
+        }
+        propertyAccessors.addAll(template.getPropertyAccessors());
+        template.setPropertyAccessors(propertyAccessors);
+        if (this.propertyCacheEnabled) {
+            propertyAccessors = new ArrayList<>();
+            for (PropertyAccessor propertyAccessor : template.getPropertyAccessors()) {
+                propertyAccessors.add(propertyAccessor instanceof ReflectivePropertyAccessor
+                        || propertyAccessor instanceof DomainPropertyAccessor ?
+                        new CachingPropertyAccessor(propertyAccessor) : propertyAccessor);
+            }
+            template.setPropertyAccessors(propertyAccessors);
+        }
+        //提前初始化延迟创建的解析策略，使模板在并发读取时不再被修改
+        template.getPropertyAccessors();
+        template.getConstructorResolvers();
+        template.getMethodResolvers();
+        template.getTypeLocator();
+        template.getTypeConverter();
+        return template;
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, AbstractRulesEngine.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 开启或关闭单次执行内的属性值缓存
+     * <p>开启后同一次执行中同一个对象的同一个属性只读取一次，适用于getter有计算或延迟加载的领域模型。
+     * 经过缓存读取属性的表达式不能被SpEL编译器编译，已编译的表达式不经过属性访问器，也不使用缓存</p>
+     *
+     * @param propertyCacheEnabled 是否开启
+     * @see CachingPropertyAccessor
+     */
+    public void setPropertyCacheEnabled(boolean propertyCacheEnabled) {
+        if (this.propertyCacheEnabled != propertyCacheEnabled) {
+            this.propertyCacheEnabled = propertyCacheEnabled;
+            this.contextTemplate = this.createContextTemplate();
+        }
+    }
+
+    public boolean isPropertyCacheEnabled() {
+        return propertyCacheEnabled;
+    }
+
+    /**
+     * 使用领域模型工厂生成的属性访问器读取领域模型的属性
+     * <p>访问器排在反射属性访问器之前，未登记的类与属性仍以反射读取</p>
+     *
+     * @param domainFactory 领域模型工厂，为null时恢复为反射读取
+     * @see DomainPropertyAccessor
+     */
+    public void setDomainFactory(DomainFactory domainFactory) {
+        this.domainPropertyAccessors = domainFactory == null ? Collections.emptyList() :
+                new ArrayList<>(domainFactory.getPropertyAccessors());
+        this.contextTemplate = this.createContextTemplate();
+    }
+
+    /**
+     * 创建单次执行的评估上下文
+     *
+     * @param object 待校验的对象
+     * @return 评估上下文
+     */
+    protected StandardEvaluationContext createContext(Object object) {
+        return new ExecutionContext(contextTemplate, object);
+    }
+
+    /**
+     * 复用评估上下文校验下一个对象
+     * <p>执行上下文会被重置后返回，其他类型的上下文无法复用，将创建新的评估上下文</p>
+     *
+     * @param context 上一次执行使用的评估上下文，可以为null
+     * @param object  待校验的对象
+     * @return 评估上下文
+     */
+    protected StandardEvaluationContext resetContext(StandardEvaluationContext context, Object object) {
+        if (context instanceof ExecutionContext) {
+            return ((ExecutionContext) context).reset(object);
+        }
+        return this.createContext(object);
+    }
+
+    /**
+     * 获取批量执行使用的线程池
+     *
+     * @return 线程池
+     */
+    protected ForkJoinPool getForkJoinPool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * 遍历集合参数中的元素
+     * <p>支持数组、List、Iterable、Iterator与Stream，数组与Iterable直接遍历而不复制集合。
+     * Iterator与Stream只能遍历一次，单次执行中首次遍历时读取为List并缓存在执行上下文中，
+     * 多个规则读取同一Iterator或Stream时遍历缓存的元素。遍历时会设置下标变量"#i"与当前元素变量"#element"</p>
+     *
+     * @param context    评估上下文
+     * @param collection 集合参数
+     * @param action     元素处理，返回true时结束遍历
+     * @return 遍历被结束时返回true，否则返回false
+     */
+    protected boolean forEachElement(StandardEvaluationContext context, Object collection,
+                                     Predicate<Object> action) {
+        if (collection == null) {
+            return false;
+        }
+        if (collection instanceof Object[]) {
+            Object[] array = (Object[]) collection;
             for (int i = 0; i < array.length; i++) {
-                context.setVariable(INDEX_KEY, i);
-                flag = flag || this.executeForObject(context, array[i], rule);
+                if (this.visitElement(context, i, array[i], action)) {
+                    return true;
+                }
             }
-            return flag;
+        } else if (collection instanceof List && collection instanceof RandomAccess) {
+            List<?> list = (List<?>) collection;
+            for (int i = 0; i < list.size(); i++) {
+                if (this.visitElement(context, i, list.get(i), action)) {
+                    return true;
+                }
+            }
+        } else if (collection.getClass().isArray()) {
+            int length = Array.getLength(collection);
+            for (int i = 0; i < length; i++) {
+                if (this.visitElement(context, i, Array.get(collection, i), action)) {
+                    return true;
+                }
+            }
+        } else if (collection instanceof Iterable) {
+            Iterator<?> iterator = ((Iterable<?>) collection).iterator();
+            for (int i = 0; iterator.hasNext(); i++) {
+                if (this.visitElement(context, i, iterator.next(), action)) {
+                    return true;
+                }
+            }
+        } else if (collection instanceof Stream || collection instanceof Iterator) {
+            List<?> elements = context instanceof ExecutionContext ?
+                    ((ExecutionContext) context).getElements(collection) : ExecutionContext.toList(collection);
+            return this.forEachElement(context, elements, action);
+        } else {
+            Object array = context.getTypeConverter().convertValue(collection,
+                    TypeDescriptor.forObject(collection), TypeDescriptor.valueOf(Object[].class));
+            return this.forEachElement(context, array, action);
         }
         return false;
     }
 
     /**
-     * 针对数组参数执行
+     * 设置下标与当前元素变量，并处理元素
      *
      * @param context 评估上下文
-     * @param array   数组参数
-     * @param rule    规则
-     * @param result  引擎执行的结果
+     * @param index   下标
+     * @param element 当前元素
+     * @param action  元素处理
+     * @return 元素处理的结果
      */
-    protected void executeForArray(StandardEvaluationContext context, Object[] array,
+    private boolean visitElement(StandardEvaluationContext context, int index, Object element,
+                                 Predicate<Object> action) {
+        context.setVariable(INDEX_KEY, index);
+        context.setVariable(ELEMENT_KEY, element);
+        return action.test(element);
+    }
+
+    /**
+     * 针对集合参数执行
+     *
+     * @param context    评估上下文
+     * @param collection 集合参数
+     * @param rule       规则
+     * @return 结果，集合中的所有元素有一个不通过时返回true，否则返回false
+     */
+    protected boolean executeForArray(StandardEvaluationContext context, Object collection,
+                                      AbstractRule rule) {
+        return this.forEachElement(context, collection,
+                element -> this.executeForObject(context, element, rule));
+    }
+
+    /**
+     * 针对集合参数执行
+     *
+     * @param context    评估上下文
+     * @param collection 集合参数
+     * @param rule       规则
+     * @param result     引擎执行的结果
+     */
+    protected void executeForArray(StandardEvaluationContext context, Object collection,
                                    AbstractRule rule, Result result) {
-        if (array != null) {
-            for (int i = 0; i < array.length; i++) {
-                context.setVariable(INDEX_KEY, i);
-                this.executeForObject(context, array[i], rule, result);
-            }
-        }
+        this.forEachElement(context, collection, element -> {
+            this.executeForObject(context, element, rule, result);
+            return false;
+        });
     }
 
     /**
@@ -107,8 +363,8 @@ public abstract class AbstractRulesEngine implements RulesEngine {
      */
     protected boolean executeForObject(StandardEvaluationContext context, Object object,
                                        AbstractRule rule) {
-        if (rule.supports(context, parser, object)) {
-            return rule.judge(context, parser, object);
+        if (this.supports(context, object, rule)) {
+            return this.judge(context, object, rule);
         }
         return false;
     }
@@ -123,15 +379,159 @@ public abstract class AbstractRulesEngine implements RulesEngine {
      */
     protected void executeForObject(StandardEvaluationContext context, Object object,
                                     AbstractRule rule, Result result) {
-        if (rule.supports(context, parser, object)) {
-            if (rule.judge(context, parser, object)) {
-                Map<String, Object> map = rule.collectMappings(context, parser, object);
+        if (this.supports(context, object, rule)) {
+            if (this.judge(context, object, rule)) {
+                Map<String, Object> map = this.collectMappings(context, object, rule);
                 Report report = Report.of(rule.getRuleDefinition()).putError(map);
                 result.addReport(report);
             }
         }
     }
 
+    /**
+     * 执行规则的前置条件，注册了拦截器时计时并回调
+     *
+     * @param context 评估上下文
+     * @param object  参数
+     * @param rule    规则
+     * @return 满足返回true，否则返回false
+     */
+    protected boolean supports(StandardEvaluationContext context, Object object, AbstractRule rule) {
+        RuleInterceptor[] interceptors = this.interceptors;
+        if (interceptors.length == 0) {
+            return rule.supports(context, parser, object);
+        }
+        long startTime = System.nanoTime();
+        boolean supported = rule.supports(context, parser, object);
+        long elapsedNanos = System.nanoTime() - startTime;
+        for (RuleInterceptor interceptor : interceptors) {
+            interceptor.afterSupports(rule, object, supported, elapsedNanos);
+        }
+        return supported;
+    }
+
+    /**
+     * 执行规则的断定，注册了拦截器时计时并回调
+     *
+     * @param context 评估上下文
+     * @param object  参数
+     * @param rule    规则
+     * @return 违规返回true，否则返回false
+     */
+    protected boolean judge(StandardEvaluationContext context, Object object, AbstractRule rule) {
+        RuleInterceptor[] interceptors = this.interceptors;
+        if (interceptors.length == 0) {
+            return rule.judge(context, parser, object);
+        }
+        long startTime = System.nanoTime();
+        boolean illegal = rule.judge(context, parser, object);
+        long elapsedNanos = System.nanoTime() - startTime;
+        for (RuleInterceptor interceptor : interceptors) {
+            interceptor.afterJudge(rule, object, illegal, elapsedNanos);
+        }
+        return illegal;
+    }
+
+    /**
+     * 收集规则的违规字段与值，注册了拦截器时回调
+     *
+     * @param context 评估上下文
+     * @param object  参数
+     * @param rule    规则
+     * @return 违规字段与值的映射关系
+     */
+    protected Map<String, Object> collectMappings(StandardEvaluationContext context, Object object,
+                                                  AbstractRule rule) {
+        Map<String, Object> mappings = rule.collectMappings(context, parser, object);
+        for (RuleInterceptor interceptor : this.interceptors) {
+            interceptor.afterCollectMappings(rule, object, mappings);
+        }
+        return mappings;
+    }
+
+    /**
+     * 获取单个对象执行的开始时间，未注册拦截器时不计时
+     *
+     * @return 开始时间(纳秒)，未注册拦截器时为0
+     */
+    protected long startTime() {
+        return this.interceptors.length == 0 ? 0L : System.nanoTime();
+    }
+
+    /**
+     * 单个对象执行完成后回调拦截器
+     *
+     * @param object    待校验的对象
+     * @param result    引擎执行的结果
+     * @param startTime {@link #startTime()}返回的开始时间
+     * @return 引擎执行的结果
+     */
+    protected Result afterExecute(Object object, Result result, long startTime) {
+        RuleInterceptor[] interceptors = this.interceptors;
+        if (startTime != 0L && interceptors.length != 0) {
+            long elapsedNanos = System.nanoTime() - startTime;
+            for (RuleInterceptor interceptor : interceptors) {
+                interceptor.afterExecute(this, object, result, elapsedNanos);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 单个对象评估完成后回调拦截器
+     *
+     * @param object    待校验的对象
+     * @param illegal   是否违规
+     * @param startTime {@link #startTime()}返回的开始时间
+     * @return 是否违规
+     */
+    protected boolean afterEvaluate(Object object, boolean illegal, long startTime) {
+        RuleInterceptor[] interceptors = this.interceptors;
+        if (startTime != 0L && interceptors.length != 0) {
+            long elapsedNanos = System.nanoTime() - startTime;
+            for (RuleInterceptor interceptor : interceptors) {
+                interceptor.afterEvaluate(this, object, illegal, elapsedNanos);
+            }
+        }
+        return illegal;
+    }
+
+    /**
+     * 注册规则拦截器，拦截器按注册的顺序回调
+     *
+     * @param interceptor 规则拦截器
+     */
+    public synchronized void addInterceptor(RuleInterceptor interceptor) {
+        Objects.requireNonNull(interceptor, "interceptor");
+        RuleInterceptor[] interceptors = Arrays.copyOf(this.interceptors, this.interceptors.length + 1);
+        interceptors[interceptors.length - 1] = interceptor;
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * 移除规则拦截器
+     *
+     * @param interceptor 规则拦截器
+     * @return 存在并移除时返回true，否则返回false
+     */
+    public synchronized boolean removeInterceptor(RuleInterceptor interceptor) {
+        List<RuleInterceptor> interceptors = new ArrayList<>(Arrays.asList(this.interceptors));
+        boolean removed = interceptors.remove(interceptor);
+        if (removed) {
+            this.interceptors = interceptors.toArray(new RuleInterceptor[0]);
+        }
+        return removed;
+    }
+
+    /**
+     * 获取已注册的规则拦截器
+     *
+     * @return 规则拦截器集合
+     */
+    public List<RuleInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(this.interceptors));
+    }
+
     /**
      * 针对无详细结果的处理
      *
@@ -141,97 +541,532 @@ public abstract class AbstractRulesEngine implements RulesEngine {
      * @return 结果，true表示不通过，false表示通过
      */
     protected boolean handle(StandardEvaluationContext context, Object object, AbstractRule rule) {
-        String parameterExp = rule.getRuleDefinition().getParameterExp();
-        if (parameterExp.contains(INDEX_LABEL)) {
-            String arrayExp = parameterExp.substring(0, parameterExp.indexOf(INDEX_LABEL));
-            Object[] array = parser.parseExpression(arrayExp).getValue(context, Object[].class);
-            return this.executeForArray(context, array, rule);
+        PreparedExpressions expressions = rule.prepare(parser);
+        if (expressions.isIndexed()) {
+            Object collection = expressions.getArrayExpression().getValue(context);
+            return this.executeForArray(context, collection, rule);
         } else {
             return this.executeForObject(context, object, rule);
         }
     }
 
+    /**
+     * 针对执行计划中指定位置的未分组规则的无详细结果的处理
+     *
+     * @param context  评估上下文
+     * @param object   待校验的对象
+     * @param plan     执行计划
+     * @param position 规则在执行计划中的位置
+     * @return 结果，true表示不通过，false表示通过
+     */
+    protected boolean handle(StandardEvaluationContext context, Object object, ExecutionPlan plan, int position) {
+        AbstractRule rule = plan.getRule(position);
+        if (plan.getConditionSlot(position) < 0) {
+            return this.handle(context, object, rule);
+        }
+        return this.supports(context, object, plan, position) && this.judge(context, object, rule);
+    }
+
+    /**
+     * 判断执行计划中指定位置的规则的前置条件是否满足
+     * <p>共享前置条件的规则在单次执行中只计算一次前置条件，复用已计算的结果时仍回调拦截器，耗时为0</p>
+     *
+     * @param context  评估上下文
+     * @param object   待校验的对象
+     * @param plan     执行计划
+     * @param position 规则在执行计划中的位置
+     * @return 满足时返回true，否则返回false
+     */
+    protected boolean supports(StandardEvaluationContext context, Object object, ExecutionPlan plan, int position) {
+        AbstractRule rule = plan.getRule(position);
+        int slot = plan.getConditionSlot(position);
+        if (slot < 0 || !(context instanceof ExecutionContext)) {
+            return this.supports(context, object, rule);
+        }
+        byte[] conditions = ((ExecutionContext) context).getConditions(plan.getConditionSlotCount());
+        if (conditions[slot] == 0) {
+            conditions[slot] = this.supports(context, object, rule) ? (byte) 1 : (byte) 2;
+            return conditions[slot] == 1;
+        }
+        boolean supported = conditions[slot] == 1;
+        for (RuleInterceptor interceptor : this.interceptors) {
+            interceptor.afterSupports(rule, object, supported, 0L);
+        }
+        return supported;
+    }
+
+    /**
+     * 针对规则组的无详细结果的处理
+     * <p>只解析并遍历一次集合，在每个元素上依次执行组内的规则。
+     * 执行计划记录执行统计时，分别累计组内每条规则的耗时，只有导致结束的规则记为违规</p>
+     *
+     * @param context 评估上下文
+     * @param plan    执行计划
+     * @param group   规则组
+     * @return 结果，true表示不通过，false表示通过
+     */
+    protected boolean handle(StandardEvaluationContext context, ExecutionPlan plan, ExecutionPlan.RuleGroup group) {
+        Object collection = group.getArrayExpression().getValue(context);
+        if (!plan.isAdaptive()) {
+            return this.forEachElement(context, collection, element -> {
+                for (int i = 0; i < group.size(); i++) {
+                    if (this.executeForObject(context, element, group.getRule(i))) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+        }
+        long[] elapsed = new long[group.size()];
+        int[] hit = {-1};
+        boolean illegal = this.forEachElement(context, collection, element -> {
+            for (int i = 0; i < group.size(); i++) {
+                long start = System.nanoTime();
+                boolean result = this.executeForObject(context, element, group.getRule(i));
+                elapsed[i] += System.nanoTime() - start;
+                if (result) {
+                    hit[0] = i;
+                    return true;
+                }
+            }
+            return false;
+        });
+        for (int i = 0; i < group.size(); i++) {
+            plan.record(group.getPosition(i), elapsed[i], i == hit[0]);
+        }
+        return illegal;
+    }
+
+    /**
+     * 根据当前的规则集合重新构建执行计划
+     * <p>开启自适应排序时，顺序号相同的规则按执行统计的分数重新排序，执行计划整体替换</p>
+     */
+    protected void refreshPlan() {
+        this.planLock.lock();
+        try {
+            this.buildPlan();
+        } finally {
+            this.planLock.unlock();
+        }
+    }
+
+    /**
+     * 构建执行计划，调用时需持有执行计划的锁
+     */
+    private void buildPlan() {
+        RuleSnapshot snapshot = this.snapshot;
+        if (this.adaptiveInterval <= 0) {
+            this.plan = ExecutionPlan.of(snapshot.getRules(), parser, snapshot.getVersion());
+            return;
+        }
+        List<AbstractRule> rules = snapshot.getRules();
+        Map<AbstractRule, Double> scores = new IdentityHashMap<>();
+        for (AbstractRule rule : rules) {
+            RuleStatistics ruleStatistics = this.statistics.get(rule.getRuleDefinition().getRuleCode());
+            scores.put(rule, ruleStatistics == null ? Double.POSITIVE_INFINITY : ruleStatistics.getScore());
+        }
+        List<AbstractRule> ordered = new ArrayList<>(rules);
+        ordered.sort(Comparator.comparingInt((AbstractRule rule) -> rule.getRuleDefinition().getOrder())
+                .thenComparingDouble(scores::get));
+        ExecutionPlan plan = this.plan;
+        if (plan == null || !plan.isAdaptive() || plan.getVersion() != snapshot.getVersion()
+                || !plan.getRules().equals(ordered)) {
+            this.plan = ExecutionPlan.of(ordered, parser, snapshot.getVersion(), this.statistics);
+        }
+    }
+
+    /**
+     * 记录一次执行，开启自适应排序时每达到一个周期重新排序一次
+     * <p>重新排序在执行规则的线程中进行，其他线程正在构建执行计划时直接跳过本次排序，不阻塞执行</p>
+     */
+    protected void recordExecution() {
+        int interval = this.adaptiveInterval;
+        if (interval > 0 && this.executionCount.incrementAndGet() % interval == 0 && this.planLock.tryLock()) {
+            try {
+                this.buildPlan();
+            } finally {
+                this.planLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 开启或关闭自适应排序
+     * <p>只对遇到违规即结束执行的引擎有意义，执行统计在开启后开始记录</p>
+     *
+     * @param adaptiveInterval 每执行多少次重新排序一次，小于等于0时关闭自适应排序
+     */
+    public void setAdaptiveInterval(int adaptiveInterval) {
+        this.adaptiveInterval = adaptiveInterval;
+        this.refreshPlan();
+    }
+
+    public int getAdaptiveInterval() {
+        return adaptiveInterval;
+    }
+
+    /**
+     * 获取规则的执行统计
+     *
+     * @return 规则编号与执行统计的映射
+     */
+    public Map<String, RuleStatistics> getRuleStatistics() {
+        return Collections.unmodifiableMap(this.statistics);
+    }
+
     @Override
     public String getBusinessType() {
         return businessType;
     }
 
+    /**
+     * 获取异步执行使用的执行器
+     *
+     * @return 执行器，未设置时为引擎创建的默认执行器
+     */
+    public Executor getExecutor() {
+        Executor executor = this.executor;
+        return executor != null ? executor : this.getDefaultExecutor();
+    }
+
+    /**
+     * 设置异步执行使用的执行器
+     * <p>规则中存在阻塞调用(如通过@bean调用远程服务)时，可设置独立的线程池或虚拟线程执行器</p>
+     *
+     * @param executor 执行器，为null时使用引擎创建的默认执行器
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 判断是否设置了异步执行使用的执行器
+     *
+     * @return 设置时返回true，使用默认执行器时返回false
+     */
+    public boolean isExecutorConfigured() {
+        return executor != null;
+    }
+
+    /**
+     * 获取引擎创建的默认执行器
+     * <p>每个引擎独立创建，线程数与队列长度有界，不与ForkJoinPool公共池或其他引擎共享，
+     * 规则中的阻塞调用不会影响其他任务。队列已满时由提交任务的线程执行，空闲的线程会被回收</p>
+     *
+     * @return 默认执行器
+     */
+    private ThreadPoolExecutor getDefaultExecutor() {
+        ThreadPoolExecutor defaultExecutor = this.defaultExecutor;
+        if (defaultExecutor == null) {
+            synchronized (this) {
+                defaultExecutor = this.defaultExecutor;
+                if (defaultExecutor == null) {
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    AtomicInteger threadNumber = new AtomicInteger();
+                    defaultExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(DEFAULT_EXECUTOR_QUEUE_CAPACITY), runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "ruler-" + businessType + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, (runnable, executor) -> {
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("The executor of rules engine ["
+                                    + businessType + "] has been shut down.");
+                        }
+                        runnable.run();
+                    });
+                    defaultExecutor.allowCoreThreadTimeOut(true);
+                    this.defaultExecutor = defaultExecutor;
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * 关闭引擎创建的默认执行器，通过{@link #setExecutor(Executor)}设置的执行器由调用者负责关闭
+     * <p>由Spring容器管理的引擎在容器关闭时通过推断的销毁方法调用</p>
+     */
+    public void shutdown() {
+        ThreadPoolExecutor defaultExecutor = this.defaultExecutor;
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Result> executeAsync(Object object) {
+        return CompletableFuture.supplyAsync(() -> this.execute(object), this.getExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> evaluateAsync(Object object) {
+        return CompletableFuture.supplyAsync(() -> this.evaluate(object), this.getExecutor());
+    }
+
+    /**
+     * 使用指定的评估上下文执行规则
+     * <p>默认忽略评估上下文，直接调用{@link #execute(Object)}，子类可覆盖该方法以复用评估上下文</p>
+     *
+     * @param context 评估上下文
+     * @param object  待校验的对象
+     * @return 引擎执行的结果
+     */
+    protected Result execute(StandardEvaluationContext context, Object object) {
+        return this.execute(object);
+    }
+
     @Override
     public boolean evaluate(Object object) {
-        StandardEvaluationContext context = new StandardEvaluationContext(object);
-        this.setBeanResolver(context);
-        this.registerFunctions(context, globalFunctions);
-        for (AbstractRule rule : rules) {
-            if (this.handle(context, object, rule)) {
+        return this.evaluate(this.createContext(object), object);
+    }
+
+    /**
+     * 使用指定的评估上下文评估结果
+     *
+     * @param context 评估上下文
+     * @param object  待校验的对象
+     * @return 引擎执行的布尔结果，true为不通过，false为通过
+     */
+    protected boolean evaluate(StandardEvaluationContext context, Object object) {
+        long startTime = this.startTime();
+        return this.afterEvaluate(object, this.evaluate(context, object, this.plan), startTime);
+    }
+
+    /**
+     * 按执行计划评估结果，遇到违规即结束
+     *
+     * @param context 评估上下文
+     * @param object  待校验的对象
+     * @param plan    执行计划
+     * @return 引擎执行的布尔结果，true为不通过，false为通过
+     */
+    private boolean evaluate(StandardEvaluationContext context, Object object, ExecutionPlan plan) {
+        this.recordExecution();
+        for (int i = 0; i < plan.size(); i++) {
+            ExecutionPlan.RuleGroup group = plan.getGroup(i);
+            if (group != null && !group.isLeader(i)) {
+                continue;
+            }
+            long start = plan.isAdaptive() ? System.nanoTime() : 0L;
+            boolean illegal = group == null ?
+                    this.handle(context, object, plan, i) : this.handle(context, plan, group);
+            if (plan.isAdaptive() && group == null) {
+                plan.record(i, System.nanoTime() - start, illegal);
+            }
+            if (illegal) {
                 return true;
             }
         }
         return false;
     }
 
+    @Override
+    public List<Result> executeBatch(List<?> objects) {
+        return this.executeBatch(objects, 0);
+    }
+
+    @Override
+    public List<Result> executeBatch(List<?> objects, int illegalLimit) {
+        return this.batch(objects, illegalLimit, this::execute,
+                result -> Grade.ILLEGAL.equals(result.getGrade()));
+    }
+
+    @Override
+    public List<Boolean> evaluateBatch(List<?> objects) {
+        return this.evaluateBatch(objects, 0);
+    }
+
+    @Override
+    public List<Boolean> evaluateBatch(List<?> objects, int illegalLimit) {
+        return this.batch(objects, illegalLimit, this::evaluate, Boolean::booleanValue);
+    }
+
+    /**
+     * 批量执行
+     * <p>待校验的对象被切分为连续的分区，每个分区在一个线程中顺序执行，并复用同一个评估上下文。
+     * 违规结果的数量达到上限后，尚未执行的对象不再执行，对应的结果为null</p>
+     *
+     * @param objects      待校验的对象集合
+     * @param illegalLimit 违规结果的数量上限，小于等于0时不限制
+     * @param executor     单个对象的执行方式
+     * @param illegal      判断结果是否违规
+     * @param <T>          结果类型
+     * @return 与待校验对象顺序一致的结果集合
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> batch(List<?> objects, int illegalLimit,
+                              BiFunction<StandardEvaluationContext, Object, T> executor, Predicate<T> illegal) {
+        int size = objects.size();
+        Object[] results = new Object[size];
+        if (size == 0) {
+            return (List<T>) Arrays.asList(results);
+        }
+        AtomicInteger illegalCount = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        ForkJoinPool pool = this.getForkJoinPool();
+        int partitions = Math.max(1, Math.min(pool.getParallelism(), size));
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions - 1);
+        for (int p = 1; p < partitions; p++) {
+            int from = (int) ((long) size * p / partitions);
+            int to = (int) ((long) size * (p + 1) / partitions);
+            tasks.add(pool.submit(() -> this.batch(objects, from, to, results,
+                    illegalLimit, illegalCount, stopped, executor, illegal)));
+        }
+        this.batch(objects, 0, (int) ((long) size / partitions), results,
+                illegalLimit, illegalCount, stopped, executor, illegal);
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return (List<T>) Arrays.asList(results);
+    }
+
+    /**
+     * 在当前线程中顺序执行批量中的一个分区
+     *
+     * @param objects      待校验的对象集合
+     * @param from         分区起始位置(包含)
+     * @param to           分区结束位置(不包含)
+     * @param results      结果数组
+     * @param illegalLimit 违规结果的数量上限，小于等于0时不限制
+     * @param illegalCount 已产生的违规结果数量
+     * @param stopped      批量执行是否已结束
+     * @param executor     单个对象的执行方式
+     * @param illegal      判断结果是否违规
+     * @param <T>          结果类型
+     */
+    private <T> void batch(List<?> objects, int from, int to, Object[] results,
+                           int illegalLimit, AtomicInteger illegalCount, AtomicBoolean stopped,
+                           BiFunction<StandardEvaluationContext, Object, T> executor, Predicate<T> illegal) {
+        StandardEvaluationContext context = null;
+        for (int i = from; i < to && !stopped.get(); i++) {
+            Object object = objects.get(i);
+            context = this.resetContext(context, object);
+            T result = executor.apply(context, object);
+            results[i] = result;
+            if (illegalLimit > 0 && illegal.test(result) && illegalCount.incrementAndGet() >= illegalLimit) {
+                stopped.set(true);
+            }
+        }
+    }
+
     @Override
     public List<RuleDefinition> getRuleDefinitions() {
-        return this.rules.stream()
+        return this.snapshot.getRules().stream()
                 .map(AbstractRule::getRuleDefinition)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<String, CompileStatus> getCompileStatus() {
+        Map<String, CompileStatus> compileStatus = new LinkedHashMap<>();
+        for (AbstractRule rule : this.snapshot.getRules()) {
+            compileStatus.put(rule.getRuleDefinition().getRuleCode(), rule.getCompileStatus());
+        }
+        return compileStatus;
+    }
+
+    /**
+     * 获取当前的规则快照
+     *
+     * @return 规则快照
+     */
+    public RuleSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 获取当前规则快照的规则字典，用于编解码该版本的执行结果
+     *
+     * @return 规则字典
+     */
+    public RuleDictionary getRuleDictionary() {
+        RuleSnapshot snapshot = this.snapshot;
+        RuleDictionary ruleDictionary = this.ruleDictionary;
+        if (ruleDictionary == null || ruleDictionary.getVersion() != snapshot.getVersion()) {
+            ruleDictionary = RuleDictionary.of(this.businessType, snapshot);
+            this.ruleDictionary = ruleDictionary;
+        }
+        return ruleDictionary;
+    }
+
     @Override
     public AbstractRule getRule(String ruleCode) {
-        return this.rules.stream()
-                .filter(rule -> rule.getRuleDefinition().getRuleCode().equals(ruleCode))
-                .findAny()
-                .orElse(null);
+        return this.snapshot.get(ruleCode);
     }
 
     @Override
     public void addRule(String ruleCode) {
-        AbstractRule rule = this.ruleFactory.getRule(ruleCode);
-        for (int i = 0; i < this.rules.size(); i++) {
-            if (this.rules.get(i).getRuleDefinition().getOrder()
-                    > rule.getRuleDefinition().getOrder()) {
-                this.rules.add(i, rule);
-                return;
-            }
-        }
-        this.rules.add(rule);
+        this.updateRules(Collections.singleton(ruleCode), Collections.emptyList());
     }
 
     @Override
     public void addRule(Collection<String> ruleCodes) {
-        ruleCodes.forEach(this::addRule);
+        this.updateRules(ruleCodes, Collections.emptyList());
     }
 
     @Override
-    public AbstractRule removeRule(String ruleCode) {
-        if (ruleCode == null) {
-            return null;
+    public synchronized void updateRules(Collection<String> addRuleCodes, Collection<String> removeRuleCodes) {
+        RuleSnapshot snapshot = this.snapshot;
+        for (String ruleCode : removeRuleCodes) {
+            AbstractRule rule = snapshot.get(ruleCode);
+            if (rule != null && rule.getRuleDefinition().isRequired()) {
+                throw new RuntimeException("The rule [" + ruleCode + "] is required.");
+            }
         }
-        for (int i = 0; i < this.rules.size(); i++) {
-            AbstractRule rule = this.rules.get(i);
-            if (rule.getRuleDefinition().getRuleCode().equals(ruleCode)) {
-                if (rule.getRuleDefinition().isRequired()) {
-                    throw new RuntimeException("The rule [" + ruleCode + "] is required.");
-                }
-                return this.rules.remove(i);
+        List<AbstractRule> additions = new ArrayList<>(addRuleCodes.size());
+        for (String ruleCode : addRuleCodes) {
+            AbstractRule rule = this.ruleFactory.getRule(ruleCode);
+            if (rule == null) {
+                throw new IllegalArgumentException("The rule [" + ruleCode + "] does not exist.");
             }
+            additions.add(rule);
         }
-        return null;
+        this.publish(snapshot.update(additions, removeRuleCodes));
     }
 
     @Override
-    public void forceRemoveRule(String ruleCode) {
-        this.rules.removeIf(rule -> rule.getRuleDefinition().getRuleCode().equals(ruleCode));
+    public synchronized AbstractRule removeRule(String ruleCode) {
+        AbstractRule rule = this.snapshot.get(ruleCode);
+        if (rule == null) {
+            return null;
+        }
+        if (rule.getRuleDefinition().isRequired()) {
+            throw new RuntimeException("The rule [" + ruleCode + "] is required.");
+        }
+        this.publish(this.snapshot.update(Collections.emptyList(), Collections.singleton(ruleCode)));
+        return rule;
     }
 
     @Override
-    public void reloadRules() {
+    public synchronized void forceRemoveRule(String ruleCode) {
+        this.publish(this.snapshot.update(Collections.emptyList(), Collections.singleton(ruleCode)));
+    }
+
+    /**
+     * 从规则工厂重新加载规则
+     * <p>与当前快照比较后只替换变化的规则，未变化的规则保留已有的预解析与编译状态；
+     * 规则没有变化时不构建新的执行计划。新的执行计划整体替换，执行中的调用不会看到空的或部分的规则集合</p>
+     */
+    @Override
+    public synchronized void reloadRules() {
         List<AbstractRule> rules = ruleFactory.findRules(businessType).stream()
                 .filter(rule -> rule.getRuleDefinition().isEnabled())
-                .sorted(Comparator.comparingInt(rule -> rule.getRuleDefinition().getOrder()))
                 .collect(Collectors.toList());
-        this.rules.clear();
-        this.rules.addAll(rules);
+        this.publish(this.snapshot.diff(rules));
+    }
+
+    /**
+     * 发布新的规则快照并重新构建执行计划
+     *
+     * @param snapshot 规则快照
+     */
+    private void publish(RuleSnapshot snapshot) {
+        if (snapshot != this.snapshot || this.plan == null) {
+            this.snapshot = snapshot;
+            this.refreshPlan();
+        }
     }
 
     @Override
@@ -0,0 +1,68 @@
+package info.lostred.ruler.engine;
+
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+
+import java.util.Map;
+
+/**
+ * 带缓存的属性访问器
+ * <p>在单次执行中按读取目标与属性名缓存读取的值，同一个对象的同一个属性的getter只会被调用一次，
+ * 属性路径上的每一级都会被缓存。缓存保存在执行上下文中，执行结束后随上下文一起释放，
+ * 评估上下文不是执行上下文时直接读取。该访问器不支持编译，经过该访问器读取属性的表达式将以解释方式执行</p>
+ *
+ * @author lostred
+ */
+public class CachingPropertyAccessor implements PropertyAccessor {
+    /**
+     * 实际读取属性的访问器
+     */
+    private final PropertyAccessor delegate;
+
+    public CachingPropertyAccessor(PropertyAccessor delegate) {
+        this.delegate = delegate;
+    }
+
+    public PropertyAccessor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return delegate.getSpecificTargetClasses();
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) throws AccessException {
+        return delegate.canRead(context, target, name);
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        if (target == null || !(context instanceof ExecutionContext)) {
+            return delegate.read(context, target, name);
+        }
+        Map<String, TypedValue> values = ((ExecutionContext) context).getPropertyValues(target);
+        TypedValue value = values.get(name);
+        if (value == null) {
+            value = delegate.read(context, target, name);
+            values.put(name, value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) throws AccessException {
+        return delegate.canWrite(context, target, name);
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        delegate.write(context, target, name, newValue);
+        if (target != null && context instanceof ExecutionContext) {
+            ((ExecutionContext) context).getPropertyValues(target).remove(name);
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package info.lostred.ruler.engine;
 
+import info.lostred.ruler.domain.Report;
 import info.lostred.ruler.domain.Result;
 import info.lostred.ruler.factory.RuleFactory;
-import info.lostred.ruler.rule.AbstractRule;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
@@ -23,14 +23,18 @@ public class CompleteRulesEngine extends DetailRulesEngine {
 
     @Override
     public Result execute(Object object) {
-        StandardEvaluationContext context = new StandardEvaluationContext(object);
-        this.setBeanResolver(context);
-        this.registerFunctions(context, globalFunctions);
-        Result result = Result.of();
-        for (AbstractRule rule : rules) {
-            this.handle(context, object, result, rule);
+        return this.execute(this.createContext(object), object);
+    }
+
+    @Override
+    protected Result execute(StandardEvaluationContext context, Object object) {
+        long startTime = this.startTime();
+        ExecutionPlan plan = this.plan;
+        Result result = Result.of(plan.getVersion());
+        Report[][] groupReports = new Report[plan.getGroupCount()][];
+        for (int i = 0; i < plan.size(); i++) {
+            this.handle(context, object, result, plan, i, groupReports);
         }
-        result.statistic();
-        return result;
+        return this.afterExecute(object, result, startTime);
     }
 }
@@ -1,6 +1,9 @@
 package info.lostred.ruler.engine;
 
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Report;
 import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.expression.PreparedExpressions;
 import info.lostred.ruler.factory.RuleFactory;
 import info.lostred.ruler.rule.AbstractRule;
 import org.springframework.expression.BeanResolver;
@@ -9,8 +12,7 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
 import java.util.List;
-
-import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
+import java.util.Map;
 
 /**
  * 返回详细结果的规则引擎
@@ -32,13 +34,112 @@ public abstract class DetailRulesEngine extends AbstractRulesEngine {
      * @param rule    当前规则
      */
     protected void handle(StandardEvaluationContext context, Object object, Result result, AbstractRule rule) {
-        String parameterExp = rule.getRuleDefinition().getParameterExp();
-        if (parameterExp.contains(INDEX_LABEL)) {
-            String arrayExp = parameterExp.substring(0, parameterExp.indexOf(INDEX_LABEL));
-            Object[] array = parser.parseExpression(arrayExp).getValue(context, Object[].class);
-            this.executeForArray(context, array, rule, result);
+        PreparedExpressions expressions = rule.prepare(parser);
+        if (expressions.isIndexed()) {
+            Object collection = expressions.getArrayExpression().getValue(context);
+            this.executeForArray(context, collection, rule, result);
         } else {
             this.executeForObject(context, object, rule, result);
         }
     }
+
+    /**
+     * 针对执行计划中指定位置的规则的详细结果的处理
+     * <p>规则属于规则组时，在组内第一条规则的位置执行整个规则组并暂存各规则的报告，
+     * 报告按规则在执行计划中的位置依次放入结果中</p>
+     *
+     * @param context      评估上下文
+     * @param object       待校验的对象
+     * @param result       引擎执行的结果
+     * @param plan         执行计划
+     * @param position     规则在执行计划中的位置
+     * @param groupReports 本次执行中各规则组暂存的报告
+     */
+    protected void handle(StandardEvaluationContext context, Object object, Result result,
+                          ExecutionPlan plan, int position, Report[][] groupReports) {
+        ExecutionPlan.RuleGroup group = plan.getGroup(position);
+        if (group == null) {
+            AbstractRule rule = plan.getRule(position);
+            if (plan.getConditionSlot(position) < 0) {
+                this.handle(context, object, result, rule);
+            } else if (this.supports(context, object, plan, position) && this.judge(context, object, rule)) {
+                Map<String, Object> map = this.collectMappings(context, object, rule);
+                result.addReport(Report.of(rule.getRuleDefinition()).putError(map));
+            }
+            return;
+        }
+        Report[] reports = groupReports[group.getId()];
+        if (reports == null) {
+            reports = this.collect(context, plan, group);
+            groupReports[group.getId()] = reports;
+        }
+        Report report = reports[plan.getMemberIndex(position)];
+        if (report != null) {
+            result.addReport(report);
+        }
+    }
+
+    /**
+     * 针对规则组的详细结果的处理
+     * <p>只解析并遍历一次集合，在每个元素上依次执行组内的规则。
+     * 执行计划记录执行统计时，分别记录组内每条规则的耗时与是否违规</p>
+     *
+     * @param context 评估上下文
+     * @param plan    执行计划
+     * @param group   规则组
+     * @return 组内各规则的报告，下标与组内规则一致，未违规的规则为null
+     */
+    protected Report[] collect(StandardEvaluationContext context, ExecutionPlan plan, ExecutionPlan.RuleGroup group) {
+        return this.collect(context, plan, group, false);
+    }
+
+    /**
+     * 针对规则组的详细结果的处理
+     * <p>遇到严重违规即结束执行时，组内某条严重违规的规则产生报告后，组内位于其后的规则不再执行，
+     * 已在之前的元素上产生的报告也被丢弃，与逐条执行规则时的结果一致</p>
+     *
+     * @param context        评估上下文
+     * @param plan           执行计划
+     * @param group          规则组
+     * @param stopOnIllegal  是否在严重违规的规则产生报告后结束执行
+     * @return 组内各规则的报告，下标与组内规则一致，未违规或未执行的规则为null
+     */
+    protected Report[] collect(StandardEvaluationContext context, ExecutionPlan plan, ExecutionPlan.RuleGroup group,
+                               boolean stopOnIllegal) {
+        Report[] reports = new Report[group.size()];
+        long[] elapsed = plan.isAdaptive() ? new long[group.size()] : null;
+        //执行的规则数量，严重违规的规则产生报告后缩减至该规则为止
+        int[] end = {group.size()};
+        Object collection = group.getArrayExpression().getValue(context);
+        this.forEachElement(context, collection, element -> {
+            for (int i = 0; i < end[0]; i++) {
+                long start = elapsed == null ? 0L : System.nanoTime();
+                AbstractRule rule = group.getRule(i);
+                if (this.supports(context, element, rule) && this.judge(context, element, rule)) {
+                    Map<String, Object> map = this.collectMappings(context, element, rule);
+                    if (reports[i] == null) {
+                        reports[i] = Report.of(rule.getRuleDefinition());
+                    }
+                    reports[i].putError(map);
+                    if (stopOnIllegal && Grade.ILLEGAL.equals(rule.getRuleDefinition().getGrade())) {
+                        end[0] = i + 1;
+                    }
+                }
+                if (elapsed != null) {
+                    elapsed[i] += System.nanoTime() - start;
+                }
+            }
+            return false;
+        });
+        for (int i = end[0]; i < group.size(); i++) {
+            reports[i] = null;
+        }
+        if (elapsed != null) {
+            for (int i = 0; i < end[0]; i++) {
+                plan.record(group.getPosition(i), elapsed[i],
+                        reports[i] != null && Grade.ILLEGAL.equals(group.getRule(i).getRuleDefinition().getGrade()));
+            }
+        }
+        return reports;
+    }
 }
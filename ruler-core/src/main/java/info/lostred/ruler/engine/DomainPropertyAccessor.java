@@ -0,0 +1,191 @@
+package info.lostred.ruler.engine;
+
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.core.convert.Property;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 领域模型属性访问器
+ * <p>每个领域模型类的每个getter对应一个实例，通过{@link LambdaMetafactory}生成函数，
+ * 读取属性时直接调用而不经过反射。领域模型类对ruler的类加载器不可见时退化为方法句柄调用。
+ * 只读取已登记的属性，其余属性交由后续的属性访问器处理；支持SpEL编译，编译后直接调用getter，
+ * 属性类型为getter的返回类型，属性上的方法调用与数值运算可以按实际类型编译</p>
+ *
+ * @author lostred
+ */
+public class DomainPropertyAccessor implements CompilablePropertyAccessor {
+    private final Class<?> domainClass;
+    private final String propertyName;
+    private final Method method;
+    private final Function<Object, Object> function;
+    private final TypeDescriptor typeDescriptor;
+
+    private DomainPropertyAccessor(Class<?> domainClass, String propertyName, Method method,
+                                   Function<Object, Object> function, TypeDescriptor typeDescriptor) {
+        this.domainClass = domainClass;
+        this.propertyName = propertyName;
+        this.method = method;
+        this.function = function;
+        this.typeDescriptor = typeDescriptor;
+    }
+
+    /**
+     * 根据领域模型类的属性描述构建属性访问器
+     * <p>没有getter或getter不可访问的属性被忽略</p>
+     *
+     * @param domainClass         领域模型类
+     * @param propertyDescriptors 属性描述集合
+     * @return 属性访问器集合，每个属性一个
+     */
+    public static List<DomainPropertyAccessor> of(Class<?> domainClass, Collection<PropertyDescriptor> propertyDescriptors) {
+        List<DomainPropertyAccessor> propertyAccessors = new ArrayList<>();
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            Method method = propertyDescriptor.getReadMethod();
+            if (method == null || !Modifier.isPublic(method.getModifiers())) {
+                continue;
+            }
+            Function<Object, Object> function = createFunction(method);
+            if (function != null) {
+                TypeDescriptor typeDescriptor = new TypeDescriptor(new Property(domainClass, method, null));
+                propertyAccessors.add(new DomainPropertyAccessor(domainClass, propertyDescriptor.getName(),
+                        method, function, typeDescriptor));
+            }
+        }
+        return propertyAccessors;
+    }
+
+    /**
+     * 为getter生成函数
+     *
+     * @param method getter
+     * @return 函数，getter不可访问时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createFunction(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            if (isVisible(method.getDeclaringClass())) {
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                return (Function<Object, Object>) callSite.getTarget().invokeExact();
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return generic.invokeExact(target);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 判断类对ruler的类加载器是否可见，生成的函数需要从ruler的类加载器解析领域模型类
+     */
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, DomainPropertyAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public Class<?> getDomainClass() {
+        return domainClass;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return new Class<?>[]{domainClass};
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) {
+        return domainClass.isInstance(target) && propertyName.equals(name);
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        if (!this.canRead(context, target, name)) {
+            throw new AccessException("Unable to read property '" + name + "' of " +
+                    (target == null ? "null" : target.getClass().getName()));
+        }
+        Object value;
+        try {
+            value = function.apply(target);
+        } catch (RuntimeException e) {
+            throw new AccessException("Unable to access property '" + name + "' through getter method", e);
+        }
+        if (value == null || value.getClass() == typeDescriptor.getType()) {
+            return new TypedValue(value, typeDescriptor);
+        }
+        return new TypedValue(value, typeDescriptor.narrow(value));
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) {
+        return false;
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        throw new AccessException("Property '" + name + "' is read-only for " + getClass().getSimpleName());
+    }
+
+    @Override
+    public boolean isCompilable() {
+        return Modifier.isPublic(domainClass.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * 属性类型为getter的返回类型，基本类型不装箱，由SpEL在需要时装箱
+     */
+    @Override
+    public Class<?> getPropertyType() {
+        return method.getReturnType();
+    }
+
+    @Override
+    public void generateCode(String propertyName, MethodVisitor mv, CodeFlow cf) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        String classDesc = declaringClass.getName().replace('.', '/');
+        String descriptor = cf.lastDescriptor();
+        if (descriptor == null) {
+            cf.loadTarget(mv);
+        }
+        if (descriptor == null || !classDesc.equals(descriptor.substring(1))) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, classDesc);
+        }
+        boolean isInterface = declaringClass.isInterface();
+        mv.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, classDesc,
+                method.getName(), CodeFlow.createSignatureDescriptor(method), isInterface);
+    }
+}
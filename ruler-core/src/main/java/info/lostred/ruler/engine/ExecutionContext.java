@@ -0,0 +1,225 @@
+package info.lostred.ruler.engine;
+
+import org.springframework.expression.*;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 规则引擎执行上下文
+ * <p>单次执行使用的评估上下文，只持有根对象与本次执行的变量。
+ * 函数、bean解析器、属性访问器与类型转换器等从引擎的上下文模板中读取，创建的开销与全局函数的数量无关。
+ * 属性访问器等解析策略由上下文模板决定，在执行上下文中修改不会生效。
+ * 批量执行时同一线程通过{@link #reset(Object)}复用执行上下文</p>
+ *
+ * @author lostred
+ */
+public class ExecutionContext extends StandardEvaluationContext {
+    /**
+     * 上下文模板
+     */
+    private final StandardEvaluationContext template;
+    /**
+     * 本次执行的bean解析器，为null时使用上下文模板中的bean解析器
+     */
+    private BeanResolver beanResolver;
+    /**
+     * 本次执行的变量
+     */
+    private final Map<String, Object> variables = new HashMap<>();
+    /**
+     * 本次执行中共享的前置条件的结果，0表示未计算，1表示满足，2表示不满足
+     */
+    private byte[] conditions;
+    /**
+     * 本次执行中读取的属性值，按读取目标的引用区分
+     */
+    private Map<Object, Map<String, TypedValue>> propertyValues;
+    /**
+     * 本次执行中读取的Iterator与Stream的元素，按Iterator与Stream的引用区分
+     */
+    private Map<Object, List<Object>> elements;
+
+    public ExecutionContext(StandardEvaluationContext template, Object rootObject) {
+        super(rootObject);
+        this.template = template;
+    }
+
+    /**
+     * 重置执行上下文，清除本次执行的变量与bean解析器，并设置新的根对象
+     *
+     * @param rootObject 根对象
+     * @return 返回调用对象
+     */
+    public ExecutionContext reset(Object rootObject) {
+        this.variables.clear();
+        this.beanResolver = null;
+        if (this.conditions != null) {
+            Arrays.fill(this.conditions, (byte) 0);
+        }
+        if (this.propertyValues != null) {
+            this.propertyValues.clear();
+        }
+        if (this.elements != null) {
+            this.elements.clear();
+        }
+        this.setRootObject(rootObject);
+        return this;
+    }
+
+    /**
+     * 获取本次执行中共享的前置条件的结果
+     *
+     * @param size 条件槽的数量
+     * @return 前置条件的结果，下标为条件槽
+     */
+    public byte[] getConditions(int size) {
+        if (this.conditions == null || this.conditions.length < size) {
+            this.conditions = new byte[size];
+        }
+        return this.conditions;
+    }
+
+    /**
+     * 获取本次执行中读取目标已读取的属性值
+     *
+     * @param target 读取目标
+     * @return 属性名与属性值的映射
+     * @see CachingPropertyAccessor
+     */
+    public Map<String, TypedValue> getPropertyValues(Object target) {
+        if (this.propertyValues == null) {
+            this.propertyValues = new IdentityHashMap<>();
+        }
+        return this.propertyValues.computeIfAbsent(target, k -> new HashMap<>());
+    }
+
+    /**
+     * 获取本次执行中Iterator或Stream的元素
+     * <p>Iterator与Stream只能遍历一次，首次获取时读取全部元素并缓存，本次执行中再次获取时返回缓存的元素</p>
+     *
+     * @param source Iterator或Stream
+     * @return 元素集合
+     */
+    public List<Object> getElements(Object source) {
+        if (this.elements == null) {
+            this.elements = new IdentityHashMap<>();
+        }
+        return this.elements.computeIfAbsent(source, ExecutionContext::toList);
+    }
+
+    /**
+     * 设置本次执行中读取的Iterator与Stream的元素
+     * <p>并行执行时同一对象的多个执行上下文共享同一个线程安全的映射，使Iterator与Stream只被读取一次</p>
+     *
+     * @param elements Iterator或Stream的引用与元素集合的映射
+     */
+    public void setElements(Map<Object, List<Object>> elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * 读取Iterator或Stream的全部元素
+     *
+     * @param source Iterator或Stream
+     * @return 元素集合
+     * @throws IllegalArgumentException 参数不是Iterator或Stream时
+     */
+    public static List<Object> toList(Object source) {
+        Iterator<?> iterator;
+        if (source instanceof Iterator) {
+            iterator = (Iterator<?>) source;
+        } else if (source instanceof Stream) {
+            iterator = ((Stream<?>) source).iterator();
+        } else {
+            throw new IllegalArgumentException("Source must be an iterator or a stream.");
+        }
+        List<Object> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    public StandardEvaluationContext getTemplate() {
+        return template;
+    }
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return template.getPropertyAccessors();
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return template.getConstructorResolvers();
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return template.getMethodResolvers();
+    }
+
+    @Override
+    public void setBeanResolver(BeanResolver beanResolver) {
+        this.beanResolver = beanResolver;
+    }
+
+    @Override
+    public BeanResolver getBeanResolver() {
+        return beanResolver != null ? beanResolver : template.getBeanResolver();
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+        return template.getTypeLocator();
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return template.getTypeConverter();
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return template.getTypeComparator();
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return template.getOperatorOverloader();
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        if (name != null && !name.isEmpty()) {
+            if (value != null) {
+                this.variables.put(name, value);
+            } else {
+                this.variables.remove(name);
+            }
+        }
+    }
+
+    @Override
+    public void registerFunction(String name, Method method) {
+        this.variables.put(name, method);
+    }
+
+    @Override
+    public void setVariables(Map<String, Object> variables) {
+        variables.forEach(this::setVariable);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        Object value = this.variables.get(name);
+        return value != null ? value : template.lookupVariable(name);
+    }
+}
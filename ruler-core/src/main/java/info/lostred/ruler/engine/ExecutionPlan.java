@@ -0,0 +1,362 @@
+package info.lostred.ruler.engine;
+
+import info.lostred.ruler.expression.CompilableExpression;
+import info.lostred.ruler.expression.PreparedExpressions;
+import info.lostred.ruler.rule.AbstractRule;
+import info.lostred.ruler.util.SpELUtils;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * 执行计划
+ * <p>规则载入时构建，数组参数表达式相同的规则会被合并为一个规则组，
+ * 执行时只解析并遍历一次集合，在每个元素上依次执行组内的所有规则。
+ * 规范化后相同的前置条件表达式共享一个条件槽，单次执行中只计算一次</p>
+ *
+ * @author lostred
+ */
+public final class ExecutionPlan {
+    /**
+     * 规则数组，按顺序号排列
+     */
+    private final AbstractRule[] rules;
+    /**
+     * 规则所在的规则组，下标与规则数组一致，未分组的规则为null
+     */
+    private final RuleGroup[] groups;
+    /**
+     * 规则在所在规则组中的下标，下标与规则数组一致
+     */
+    private final int[] memberIndexes;
+    /**
+     * 规则组的数量
+     */
+    private final int groupCount;
+    /**
+     * 能否在该位置之前切分执行计划，长度为规则数量加1，规则组首尾规则之间的位置不能切分
+     */
+    private final boolean[] splittable;
+    /**
+     * 规则前置条件的条件槽，下标与规则数组一致，不共享前置条件的规则为-1
+     */
+    private final int[] conditionSlots;
+    /**
+     * 条件槽的数量
+     */
+    private final int conditionSlotCount;
+    /**
+     * 规则的执行统计，下标与规则数组一致，未开启自适应排序时为null
+     */
+    private final RuleStatistics[] statistics;
+    /**
+     * 构建执行计划的规则快照版本
+     */
+    private final long version;
+
+    /**
+     * 根据规则集合构建执行计划
+     *
+     * @param rules   规则集合，按顺序号排列
+     * @param parser  表达式解析器
+     * @param version 规则快照版本
+     * @return 执行计划
+     */
+    public static ExecutionPlan of(List<AbstractRule> rules, ExpressionParser parser, long version) {
+        return new ExecutionPlan(rules.toArray(new AbstractRule[0]), parser, null, version);
+    }
+
+    /**
+     * 根据规则集合构建记录执行统计的执行计划
+     *
+     * @param rules      规则集合
+     * @param parser     表达式解析器
+     * @param version    规则快照版本
+     * @param statistics 规则编号与执行统计的映射
+     * @return 执行计划
+     */
+    public static ExecutionPlan of(List<AbstractRule> rules, ExpressionParser parser, long version,
+                                   Map<String, RuleStatistics> statistics) {
+        AbstractRule[] array = rules.toArray(new AbstractRule[0]);
+        RuleStatistics[] ruleStatistics = new RuleStatistics[array.length];
+        for (int i = 0; i < array.length; i++) {
+            ruleStatistics[i] = statistics.computeIfAbsent(array[i].getRuleDefinition().getRuleCode(),
+                    k -> new RuleStatistics());
+        }
+        return new ExecutionPlan(array, parser, ruleStatistics, version);
+    }
+
+    private ExecutionPlan(AbstractRule[] rules, ExpressionParser parser, RuleStatistics[] statistics, long version) {
+        this.rules = rules;
+        this.statistics = statistics;
+        this.version = version;
+        this.groups = new RuleGroup[rules.length];
+        this.memberIndexes = new int[rules.length];
+        Map<String, List<Integer>> positionsMap = new LinkedHashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            PreparedExpressions expressions = rules[i].prepare(parser);
+            if (expressions.isIndexed()) {
+                String arrayExp = expressions.getArrayExpression().getExpression().getExpressionString().trim();
+                positionsMap.computeIfAbsent(arrayExp, k -> new ArrayList<>()).add(i);
+            }
+        }
+        int id = 0;
+        for (List<Integer> positions : positionsMap.values()) {
+            if (positions.size() < 2) {
+                continue;
+            }
+            AbstractRule[] members = new AbstractRule[positions.size()];
+            int[] memberPositions = new int[positions.size()];
+            for (int j = 0; j < members.length; j++) {
+                members[j] = rules[positions.get(j)];
+                memberPositions[j] = positions.get(j);
+            }
+            CompilableExpression arrayExpression = members[0].prepare(parser).getArrayExpression();
+            RuleGroup group = new RuleGroup(id++, arrayExpression, members, memberPositions);
+            for (int j = 0; j < members.length; j++) {
+                this.groups[positions.get(j)] = group;
+                this.memberIndexes[positions.get(j)] = j;
+            }
+        }
+        this.groupCount = id;
+        this.splittable = new boolean[rules.length + 1];
+        Arrays.fill(this.splittable, true);
+        for (List<Integer> positions : positionsMap.values()) {
+            if (positions.size() >= 2) {
+                Arrays.fill(this.splittable, positions.get(0) + 1, positions.get(positions.size() - 1) + 1, false);
+            }
+        }
+        this.conditionSlots = new int[rules.length];
+        Arrays.fill(this.conditionSlots, -1);
+        Map<String, List<Integer>> conditionsMap = new HashMap<>();
+        for (int i = 0; i < rules.length; i++) {
+            PreparedExpressions expressions = rules[i].prepare(parser);
+            if (!expressions.isIndexed() && expressions.getConditionExpression() != null
+                    && !overridesSupports(rules[i])) {
+                String conditionExp = SpELUtils.normalize(rules[i].getRuleDefinition().getConditionExp());
+                conditionsMap.computeIfAbsent(conditionExp, k -> new ArrayList<>()).add(i);
+            }
+        }
+        int slot = 0;
+        for (List<Integer> positions : conditionsMap.values()) {
+            if (positions.size() < 2) {
+                continue;
+            }
+            for (Integer position : positions) {
+                this.conditionSlots[position] = slot;
+            }
+            slot++;
+        }
+        this.conditionSlotCount = slot;
+    }
+
+    /**
+     * 判断规则类是否覆盖了前置条件的判断方法，覆盖后前置条件不能被共享
+     *
+     * @param rule 规则
+     * @return 覆盖时返回true，否则返回false
+     */
+    private static boolean overridesSupports(AbstractRule rule) {
+        Class<? extends AbstractRule> ruleClass = rule.getRuleDefinition().getRuleClass();
+        if (ruleClass == null) {
+            ruleClass = rule.getClass();
+        }
+        try {
+            Method method = ruleClass.getMethod("supports",
+                    EvaluationContext.class, ExpressionParser.class, Object.class);
+            return method.getDeclaringClass() != AbstractRule.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 获取规则的数量
+     *
+     * @return 规则的数量
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * 获取指定位置的规则
+     *
+     * @param position 位置
+     * @return 规则
+     */
+    public AbstractRule getRule(int position) {
+        return rules[position];
+    }
+
+    /**
+     * 获取指定位置的规则所在的规则组
+     *
+     * @param position 位置
+     * @return 规则组，未分组时返回null
+     */
+    public RuleGroup getGroup(int position) {
+        return groups[position];
+    }
+
+    /**
+     * 获取指定位置的规则在所在规则组中的下标
+     *
+     * @param position 位置
+     * @return 组内下标
+     */
+    public int getMemberIndex(int position) {
+        return memberIndexes[position];
+    }
+
+    /**
+     * 获取规则组的数量
+     *
+     * @return 规则组的数量
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * 获取将[from, to)切分为两个分段的位置，取最接近中点且不落在任何规则组首尾规则之间的位置，
+     * 使每个规则组只在一个分段中遍历一次集合
+     *
+     * @param from 分段起始位置(包含)
+     * @param to   分段结束位置(不包含)
+     * @return 切分位置，无法切分时返回-1
+     */
+    public int getSplitPosition(int from, int to) {
+        int middle = (from + to) >>> 1;
+        for (int d = 0; middle - d > from || middle + d < to; d++) {
+            if (middle - d > from && splittable[middle - d]) {
+                return middle - d;
+            }
+            if (middle + d < to && splittable[middle + d]) {
+                return middle + d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取指定位置的规则的条件槽
+     *
+     * @param position 位置
+     * @return 条件槽，不共享前置条件时返回-1
+     */
+    public int getConditionSlot(int position) {
+        return conditionSlots[position];
+    }
+
+    /**
+     * 获取条件槽的数量
+     *
+     * @return 条件槽的数量
+     */
+    public int getConditionSlotCount() {
+        return conditionSlotCount;
+    }
+
+    /**
+     * 获取构建执行计划的规则快照版本
+     *
+     * @return 规则快照版本
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 判断执行计划是否记录执行统计
+     *
+     * @return 开启自适应排序时返回true，否则返回false
+     */
+    public boolean isAdaptive() {
+        return statistics != null;
+    }
+
+    /**
+     * 记录指定位置的规则的一次执行，未开启自适应排序时忽略
+     *
+     * @param position     位置
+     * @param elapsedNanos 耗时(纳秒)
+     * @param hit          是否违规
+     */
+    public void record(int position, long elapsedNanos, boolean hit) {
+        if (statistics != null) {
+            statistics[position].record(elapsedNanos, hit);
+        }
+    }
+
+    /**
+     * 获取所有规则
+     *
+     * @return 规则集合，按顺序号排列
+     */
+    public List<AbstractRule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    /**
+     * 规则组
+     * <p>数组参数表达式相同的规则集合</p>
+     */
+    public static final class RuleGroup {
+        /**
+         * 规则组在执行计划中的编号
+         */
+        private final int id;
+        /**
+         * 数组参数表达式
+         */
+        private final CompilableExpression arrayExpression;
+        /**
+         * 组内规则，按顺序号排列
+         */
+        private final AbstractRule[] rules;
+        /**
+         * 组内规则在执行计划中的位置
+         */
+        private final int[] positions;
+
+        private RuleGroup(int id, CompilableExpression arrayExpression, AbstractRule[] rules, int[] positions) {
+            this.id = id;
+            this.arrayExpression = arrayExpression;
+            this.rules = rules;
+            this.positions = positions;
+        }
+
+        /**
+         * 判断执行计划中该位置的规则是否是组内第一条规则
+         *
+         * @param position 位置
+         * @return 是返回true，否则返回false
+         */
+        public boolean isLeader(int position) {
+            return positions[0] == position;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public CompilableExpression getArrayExpression() {
+            return arrayExpression;
+        }
+
+        public int size() {
+            return rules.length;
+        }
+
+        public AbstractRule getRule(int index) {
+            return rules[index];
+        }
+
+        public int getPosition(int index) {
+            return positions[index];
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package info.lostred.ruler.engine;
 
 import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Report;
 import info.lostred.ruler.domain.Result;
 import info.lostred.ruler.factory.RuleFactory;
-import info.lostred.ruler.rule.AbstractRule;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
@@ -24,17 +24,33 @@ public class IncompleteRulesEngine extends DetailRulesEngine {
 
     @Override
     public Result execute(Object object) {
-        StandardEvaluationContext context = new StandardEvaluationContext(object);
-        this.setBeanResolver(context);
-        this.registerFunctions(context, globalFunctions);
-        Result result = Result.of();
-        for (AbstractRule rule : rules) {
-            this.handle(context, object, result, rule);
-            if (Grade.ILLEGAL.equals(result.getGrade())) {
+        return this.execute(this.createContext(object), object);
+    }
+
+    @Override
+    protected Result execute(StandardEvaluationContext context, Object object) {
+        long startTime = this.startTime();
+        this.recordExecution();
+        ExecutionPlan plan = this.plan;
+        Result result = Result.of(plan.getVersion());
+        Report[][] groupReports = new Report[plan.getGroupCount()][];
+        for (int i = 0; i < plan.size(); i++) {
+            long start = plan.isAdaptive() ? System.nanoTime() : 0L;
+            this.handle(context, object, result, plan, i, groupReports);
+            boolean illegal = Grade.ILLEGAL.equals(result.getGrade());
+            if (plan.isAdaptive() && plan.getGroup(i) == null) {
+                //规则组内的规则在执行规则组时分别记录
+                plan.record(i, System.nanoTime() - start, illegal);
+            }
+            if (illegal) {
                 break;
             }
         }
-        result.statistic();
-        return result;
+        return this.afterExecute(object, result, startTime);
+    }
+
+    @Override
+    protected Report[] collect(StandardEvaluationContext context, ExecutionPlan plan, ExecutionPlan.RuleGroup group) {
+        return this.collect(context, plan, group, true);
     }
 }
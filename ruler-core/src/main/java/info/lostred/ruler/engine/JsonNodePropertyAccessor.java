@@ -0,0 +1,116 @@
+package info.lostred.ruler.engine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Jackson树模型属性访问器
+ * <p>按字段名读取{@link JsonNode}对象节点中的值，使规则表达式能直接校验JSON而无需绑定为领域模型。
+ * 文本、数字与布尔节点转换为对应的Java值，空节点与缺失的字段为null，对象节点保持为节点继续访问，
+ * 数组节点包装为按下标转换元素的只读List视图，不复制数组，因此"contacts[#i].type"可直接在数组节点上执行</p>
+ *
+ * @author lostred
+ */
+public class JsonNodePropertyAccessor implements PropertyAccessor {
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return new Class<?>[]{JsonNode.class};
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) {
+        return target instanceof JsonNode && ((JsonNode) target).isObject();
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        if (!this.canRead(context, target, name)) {
+            throw new AccessException("Unable to read property '" + name + "' of " +
+                    (target == null ? "null" : target.getClass().getName()));
+        }
+        Object value = toValue(((JsonNode) target).get(name));
+        return value == null ? TypedValue.NULL : new TypedValue(value);
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) {
+        return false;
+    }
+
+    @Override
+    public void write(EvaluationContext context, Object target, String name, Object newValue) throws AccessException {
+        throw new AccessException("Property '" + name + "' is read-only for " + getClass().getSimpleName());
+    }
+
+    /**
+     * 将节点转换为规则表达式使用的值
+     *
+     * @param node 节点
+     * @return 节点的值
+     */
+    public static Object toValue(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isArray()) {
+            return new ArrayNodeList((ArrayNode) node);
+        }
+        if (node.isPojo()) {
+            return ((POJONode) node).getPojo();
+        }
+        if (node.isBinary()) {
+            try {
+                return node.binaryValue();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 数组节点的只读List视图，读取元素时转换
+     */
+    public static final class ArrayNodeList extends AbstractList<Object> implements RandomAccess {
+        private final ArrayNode node;
+
+        private ArrayNodeList(ArrayNode node) {
+            this.node = node;
+        }
+
+        public ArrayNode getNode() {
+            return node;
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index < 0 || index >= node.size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + node.size());
+            }
+            return toValue(node.get(index));
+        }
+
+        @Override
+        public int size() {
+            return node.size();
+        }
+    }
+}
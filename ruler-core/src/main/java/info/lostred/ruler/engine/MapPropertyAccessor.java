@@ -0,0 +1,74 @@
+package info.lostred.ruler.engine;
+
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
+
+import java.util.Map;
+
+/**
+ * Map属性访问器
+ * <p>将属性名作为键读取Map中的值，使规则表达式能直接校验{@code Map<String, Object>}形式的入参。
+ * 键不存在时返回null，与领域模型中未赋值的属性一致；Map的键优先于Map自身的getter</p>
+ *
+ * @author lostred
+ */
+public class MapPropertyAccessor implements CompilablePropertyAccessor {
+    @Override
+    public Class<?>[] getSpecificTargetClasses() {
+        return new Class<?>[]{Map.class};
+    }
+
+    @Override
+    public boolean canRead(EvaluationContext context, Object target, String name) {
+        return target instanceof Map;
+    }
+
+    @Override
+    public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
+        if (!(target instanceof Map)) {
+            throw new AccessException("Unable to read property '" + name + "' of " +
+                    (target == null ? "null" : target.getClass().getName()));
+        }
+        Object value = ((Map<?, ?>) target).get(name);
+        return value == null ? TypedValue.NULL : new TypedValue(value);
+    }
+
+    @Override
+    public boolean canWrite(EvaluationContext context, Object target, String name) {
+        return target instanceof Map;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(EvaluationContext context, Object target, String name, Object newValue) {
+        ((Map<Object, Object>) target).put(name, newValue);
+    }
+
+    @Override
+    public boolean isCompilable() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getPropertyType() {
+        return Object.class;
+    }
+
+    @Override
+    public void generateCode(String propertyName, MethodVisitor mv, CodeFlow cf) {
+        String descriptor = cf.lastDescriptor();
+        if (descriptor == null || !descriptor.equals("Ljava/util/Map")) {
+            if (descriptor == null) {
+                cf.loadTarget(mv);
+            }
+            CodeFlow.insertCheckCast(mv, "Ljava/util/Map");
+        }
+        mv.visitLdcInsn(propertyName);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+    }
+}
@@ -0,0 +1,205 @@
+package info.lostred.ruler.engine;
+
+import info.lostred.ruler.domain.Report;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.factory.RuleFactory;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 并行完全执行返回详细结果的规则引擎
+ * <p>执行计划被切分为连续的分段，每个分段在ForkJoinPool中使用独立的评估上下文与结果执行，
+ * 分段结果按规则顺序合并，合并后的结果与{@link CompleteRulesEngine}一致。
+ * 切分时规则组不会被拆开，每个规则组仍只遍历一次集合。
+ * 批量执行时对象已按分区在线程池中并行执行，单个对象不再切分，在分区线程中顺序执行全部规则并复用评估上下文</p>
+ *
+ * @author lostred
+ */
+public class ParallelCompleteRulesEngine extends DetailRulesEngine {
+    /**
+     * 执行规则的线程池
+     */
+    private final ForkJoinPool pool;
+    /**
+     * 线程池是否由引擎创建，由引擎创建的线程池在{@link #shutdown()}时关闭
+     */
+    private final boolean ownsPool;
+
+    /**
+     * 使用ForkJoinPool公共池执行规则
+     *
+     * @param ruleFactory     规则工厂
+     * @param businessType    业务类型
+     * @param beanResolver    bean解析器
+     * @param parser          表达式解析器
+     * @param globalFunctions 全局函数
+     */
+    public ParallelCompleteRulesEngine(RuleFactory ruleFactory, String businessType,
+                                       BeanResolver beanResolver, ExpressionParser parser, List<Method> globalFunctions) {
+        this(ruleFactory, businessType, beanResolver, parser, globalFunctions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 使用外部传入的线程池执行规则，线程池由调用者负责关闭
+     *
+     * @param ruleFactory     规则工厂
+     * @param businessType    业务类型
+     * @param beanResolver    bean解析器
+     * @param parser          表达式解析器
+     * @param globalFunctions 全局函数
+     * @param pool            执行规则的线程池
+     */
+    public ParallelCompleteRulesEngine(RuleFactory ruleFactory, String businessType,
+                                       BeanResolver beanResolver, ExpressionParser parser, List<Method> globalFunctions,
+                                       ForkJoinPool pool) {
+        this(ruleFactory, businessType, beanResolver, parser, globalFunctions, pool, false);
+    }
+
+    /**
+     * 使用引擎自己创建的线程池执行规则，不再使用引擎时需要调用{@link #shutdown()}关闭线程池
+     *
+     * @param ruleFactory     规则工厂
+     * @param businessType    业务类型
+     * @param beanResolver    bean解析器
+     * @param parser          表达式解析器
+     * @param globalFunctions 全局函数
+     * @param parallelism     线程池的并行度
+     */
+    public ParallelCompleteRulesEngine(RuleFactory ruleFactory, String businessType,
+                                       BeanResolver beanResolver, ExpressionParser parser, List<Method> globalFunctions,
+                                       int parallelism) {
+        this(ruleFactory, businessType, beanResolver, parser, globalFunctions, new ForkJoinPool(parallelism), true);
+    }
+
+    private ParallelCompleteRulesEngine(RuleFactory ruleFactory, String businessType,
+                                        BeanResolver beanResolver, ExpressionParser parser,
+                                        List<Method> globalFunctions, ForkJoinPool pool, boolean ownsPool) {
+        super(ruleFactory, businessType, beanResolver, parser, globalFunctions);
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * 关闭引擎创建的线程池与默认执行器，外部传入的线程池由调用者负责关闭
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public Result execute(Object object) {
+        long startTime = this.startTime();
+        ExecutionPlan plan = this.plan;
+        int threshold = Math.max(1, plan.size() / pool.getParallelism());
+        Map<Object, List<Object>> elements = Collections.synchronizedMap(new IdentityHashMap<>());
+        Result result = pool.invoke(new Segment(object, plan, 0, plan.size(), threshold, elements));
+        return this.afterExecute(object, result, startTime);
+    }
+
+    /**
+     * 使用指定的评估上下文在当前线程中顺序执行全部规则
+     * <p>用于批量执行，对象之间已经并行，不再切分执行计划</p>
+     *
+     * @param context 评估上下文
+     * @param object  待校验的对象
+     * @return 引擎执行的结果
+     */
+    @Override
+    protected Result execute(StandardEvaluationContext context, Object object) {
+        long startTime = this.startTime();
+        ExecutionPlan plan = this.plan;
+        Result result = this.execute(context, object, plan, 0, plan.size());
+        return this.afterExecute(object, result, startTime);
+    }
+
+    /**
+     * 在当前线程中执行执行计划的一个分段
+     *
+     * @param object   待校验的对象
+     * @param plan     执行计划
+     * @param from     分段起始位置(包含)
+     * @param to       分段结束位置(不包含)
+     * @param elements 同一对象的所有分段共享的Iterator与Stream的元素
+     * @return 分段的结果
+     */
+    protected Result execute(Object object, ExecutionPlan plan, int from, int to,
+                             Map<Object, List<Object>> elements) {
+        StandardEvaluationContext context = this.createContext(object);
+        if (context instanceof ExecutionContext) {
+            ((ExecutionContext) context).setElements(elements);
+        }
+        return this.execute(context, object, plan, from, to);
+    }
+
+    /**
+     * 使用指定的评估上下文在当前线程中执行执行计划的一个分段
+     *
+     * @param context 评估上下文
+     * @param object  待校验的对象
+     * @param plan    执行计划
+     * @param from    分段起始位置(包含)
+     * @param to      分段结束位置(不包含)
+     * @return 分段的结果
+     */
+    private Result execute(StandardEvaluationContext context, Object object, ExecutionPlan plan, int from, int to) {
+        Result result = Result.of(plan.getVersion());
+        Report[][] groupReports = new Report[plan.getGroupCount()][];
+        for (int i = from; i < to; i++) {
+            this.handle(context, object, result, plan, i, groupReports);
+        }
+        return result;
+    }
+
+    @Override
+    protected ForkJoinPool getForkJoinPool() {
+        return pool;
+    }
+
+    /**
+     * 执行计划的分段任务，超过阈值时在规则组之外最接近中点的位置拆分，左半部分的结果在前合并
+     */
+    private class Segment extends RecursiveTask<Result> {
+        private final Object object;
+        private final ExecutionPlan plan;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Map<Object, List<Object>> elements;
+
+        Segment(Object object, ExecutionPlan plan, int from, int to, int threshold,
+                Map<Object, List<Object>> elements) {
+            this.object = object;
+            this.plan = plan;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.elements = elements;
+        }
+
+        @Override
+        protected Result compute() {
+            int middle = to - from <= threshold ? -1 : plan.getSplitPosition(from, to);
+            if (middle < 0) {
+                return execute(object, plan, from, to, elements);
+            }
+            Segment left = new Segment(object, plan, from, middle, threshold, elements);
+            Segment right = new Segment(object, plan, middle, to, threshold, elements);
+            left.fork();
+            Result rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+}
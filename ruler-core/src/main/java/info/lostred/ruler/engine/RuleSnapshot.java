@@ -0,0 +1,168 @@
+package info.lostred.ruler.engine;
+
+import info.lostred.ruler.rule.AbstractRule;
+
+import java.util.*;
+
+/**
+ * 规则快照
+ * <p>不可变的规则集合，规则按顺序号排列，顺序号相同的规则保持加入的先后顺序，并按规则编号建立哈希索引。
+ * 规则引擎通过一个volatile引用发布快照，修改时基于当前快照构建新的快照后整体替换，
+ * 批量修改只复制一次规则数组</p>
+ *
+ * @author lostred
+ */
+public final class RuleSnapshot {
+    private static final RuleSnapshot EMPTY = new RuleSnapshot(0L, new AbstractRule[0], Collections.emptyMap());
+    private static final Comparator<AbstractRule> ORDER =
+            Comparator.comparingInt(rule -> rule.getRuleDefinition().getOrder());
+    /**
+     * 快照版本，每次修改递增
+     */
+    private final long version;
+    /**
+     * 按顺序号排列的规则
+     */
+    private final AbstractRule[] rules;
+    /**
+     * 规则编号与规则的索引
+     */
+    private final Map<String, AbstractRule> index;
+    private final List<AbstractRule> view;
+
+    private RuleSnapshot(long version, AbstractRule[] rules, Map<String, AbstractRule> index) {
+        this.version = version;
+        this.rules = rules;
+        this.index = index;
+        this.view = Collections.unmodifiableList(Arrays.asList(rules));
+    }
+
+    /**
+     * 获取空的规则快照
+     *
+     * @return 规则快照
+     */
+    public static RuleSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建规则快照，规则编号重复时保留后出现的规则
+     *
+     * @param rules 规则集合
+     * @return 规则快照
+     */
+    public static RuleSnapshot of(Collection<? extends AbstractRule> rules) {
+        return EMPTY.update(rules, Collections.emptyList());
+    }
+
+    /**
+     * 基于当前快照构建新的快照
+     * <p>先移除规则，再加入规则。加入的规则编号已存在时替换原有规则，并按新规则的顺序号重新排列。
+     * 加入的规则按顺序号插入，顺序号相同时排在已有规则之后</p>
+     *
+     * @param additions 加入的规则
+     * @param removals  移除的规则编号
+     * @return 新的规则快照，没有变化时返回当前快照
+     */
+    public RuleSnapshot update(Collection<? extends AbstractRule> additions, Collection<String> removals) {
+        if (additions.isEmpty() && removals.stream().noneMatch(index::containsKey)) {
+            return this;
+        }
+        Map<String, AbstractRule> added = new LinkedHashMap<>();
+        for (AbstractRule rule : additions) {
+            String ruleCode = rule.getRuleDefinition().getRuleCode();
+            added.remove(ruleCode);
+            added.put(ruleCode, rule);
+        }
+        Set<String> removed = new HashSet<>(removals);
+        removed.addAll(added.keySet());
+        AbstractRule[] sortedAdditions = added.values().toArray(new AbstractRule[0]);
+        Arrays.sort(sortedAdditions, ORDER);
+        AbstractRule[] merged = new AbstractRule[this.rules.length + sortedAdditions.length];
+        Map<String, AbstractRule> index = new HashMap<>((int) (merged.length / 0.75f) + 1);
+        int size = 0;
+        int j = 0;
+        for (AbstractRule rule : this.rules) {
+            String ruleCode = rule.getRuleDefinition().getRuleCode();
+            if (removed.contains(ruleCode)) {
+                continue;
+            }
+            while (j < sortedAdditions.length && ORDER.compare(sortedAdditions[j], rule) < 0) {
+                size = put(merged, size, index, sortedAdditions[j++]);
+            }
+            size = put(merged, size, index, rule);
+        }
+        while (j < sortedAdditions.length) {
+            size = put(merged, size, index, sortedAdditions[j++]);
+        }
+        return new RuleSnapshot(this.version + 1, Arrays.copyOf(merged, size), index);
+    }
+
+    /**
+     * 将当前快照与目标规则集合比较，只替换变化的规则
+     * <p>目标中不存在的规则被移除，新增的与实例不同的规则被重新加入，其余规则保持原有实例与位置。
+     * 已有规则的顺序号被修改导致快照不再有序时，整体重新排序</p>
+     *
+     * @param rules 目标规则集合
+     * @return 新的规则快照，没有变化时返回当前快照
+     */
+    public RuleSnapshot diff(Collection<? extends AbstractRule> rules) {
+        boolean sorted = true;
+        for (int i = 1; i < this.rules.length && sorted; i++) {
+            sorted = ORDER.compare(this.rules[i - 1], this.rules[i]) <= 0;
+        }
+        Set<String> retained = new HashSet<>((int) (rules.size() / 0.75f) + 1);
+        List<AbstractRule> additions = new ArrayList<>();
+        for (AbstractRule rule : rules) {
+            retained.add(rule.getRuleDefinition().getRuleCode());
+            if (!sorted || this.index.get(rule.getRuleDefinition().getRuleCode()) != rule) {
+                additions.add(rule);
+            }
+        }
+        List<String> removals = new ArrayList<>();
+        for (AbstractRule rule : this.rules) {
+            if (!sorted || !retained.contains(rule.getRuleDefinition().getRuleCode())) {
+                removals.add(rule.getRuleDefinition().getRuleCode());
+            }
+        }
+        return this.update(additions, removals);
+    }
+
+    private static int put(AbstractRule[] rules, int size, Map<String, AbstractRule> index, AbstractRule rule) {
+        rules[size] = rule;
+        index.put(rule.getRuleDefinition().getRuleCode(), rule);
+        return size + 1;
+    }
+
+    /**
+     * 根据规则编号获取规则
+     *
+     * @param ruleCode 规则编号
+     * @return 规则，不存在时返回null
+     */
+    public AbstractRule get(String ruleCode) {
+        return ruleCode == null ? null : index.get(ruleCode);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean contains(String ruleCode) {
+        return ruleCode != null && index.containsKey(ruleCode);
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * 获取按顺序号排列的规则
+     *
+     * @return 不可修改的规则集合
+     */
+    public List<AbstractRule> getRules() {
+        return view;
+    }
+}
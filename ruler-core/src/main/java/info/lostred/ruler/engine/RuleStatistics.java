@@ -0,0 +1,76 @@
+package info.lostred.ruler.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 规则执行统计
+ * <p>记录规则的执行次数、违规次数与耗时，用于自适应排序。
+ * 在短路执行的引擎中，耗时越低、违规概率越高的规则越应该先执行</p>
+ *
+ * @author lostred
+ */
+public final class RuleStatistics {
+    /**
+     * 执行次数
+     */
+    private final LongAdder executions = new LongAdder();
+    /**
+     * 违规次数
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * 累计耗时(纳秒)
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * 记录一次执行
+     *
+     * @param elapsedNanos 耗时(纳秒)
+     * @param hit          是否违规
+     */
+    public void record(long elapsedNanos, boolean hit) {
+        this.executions.increment();
+        this.nanos.add(elapsedNanos);
+        if (hit) {
+            this.hits.increment();
+        }
+    }
+
+    /**
+     * 获取排序分数，即平均耗时与违规概率的比值，分数越低越应该先执行
+     * <p>违规概率使用拉普拉斯平滑估计，未执行过的规则分数为正无穷大，保持原有的位置</p>
+     *
+     * @return 排序分数
+     */
+    public double getScore() {
+        long executions = this.executions.sum();
+        if (executions == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double averageNanos = (double) this.nanos.sum() / executions;
+        double hitRate = (this.hits.sum() + 1.0) / (executions + 2.0);
+        return averageNanos / hitRate;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RuleStatistics{" +
+                "executions=" + executions +
+                ", hits=" + hits +
+                ", nanos=" + nanos +
+                '}';
+    }
+}
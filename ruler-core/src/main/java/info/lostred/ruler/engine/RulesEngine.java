@@ -1,13 +1,19 @@
 package info.lostred.ruler.engine;
 
+import info.lostred.ruler.constant.CompileStatus;
+import info.lostred.ruler.constant.Grade;
 import info.lostred.ruler.domain.Result;
 import info.lostred.ruler.domain.RuleDefinition;
 import info.lostred.ruler.rule.AbstractRule;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 规则引擎接口
@@ -38,6 +44,90 @@ public interface RulesEngine {
      */
     boolean evaluate(Object object);
 
+    /**
+     * 异步执行规则
+     * <p>默认在公共线程池中调用{@link #execute(Object)}</p>
+     *
+     * @param object 待校验的对象
+     * @return 引擎执行的结果
+     */
+    default CompletableFuture<Result> executeAsync(Object object) {
+        return CompletableFuture.supplyAsync(() -> this.execute(object));
+    }
+
+    /**
+     * 异步评估结果
+     * <p>默认在公共线程池中调用{@link #evaluate(Object)}</p>
+     *
+     * @param object 待校验的对象
+     * @return 引擎执行的布尔结果，true为不通过，false为通过
+     */
+    default CompletableFuture<Boolean> evaluateAsync(Object object) {
+        return CompletableFuture.supplyAsync(() -> this.evaluate(object));
+    }
+
+    /**
+     * 批量执行规则
+     *
+     * @param objects 待校验的对象集合
+     * @return 引擎执行的结果集合，与待校验对象的顺序一致
+     */
+    default List<Result> executeBatch(List<?> objects) {
+        return this.executeBatch(objects, 0);
+    }
+
+    /**
+     * 批量执行规则，违规结果的数量达到上限后结束执行
+     * <p>默认在当前线程中按顺序调用{@link #execute(Object)}</p>
+     *
+     * @param objects      待校验的对象集合
+     * @param illegalLimit 违规结果的数量上限，小于等于0时不限制
+     * @return 引擎执行的结果集合，与待校验对象的顺序一致，未执行的对象对应的结果为null
+     */
+    default List<Result> executeBatch(List<?> objects, int illegalLimit) {
+        List<Result> results = Arrays.asList(new Result[objects.size()]);
+        int illegalCount = 0;
+        for (int i = 0; i < results.size() && (illegalLimit <= 0 || illegalCount < illegalLimit); i++) {
+            Result result = this.execute(objects.get(i));
+            results.set(i, result);
+            if (Grade.ILLEGAL.equals(result.getGrade())) {
+                illegalCount++;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 批量评估结果
+     *
+     * @param objects 待校验的对象集合
+     * @return 引擎执行的布尔结果集合，与待校验对象的顺序一致
+     */
+    default List<Boolean> evaluateBatch(List<?> objects) {
+        return this.evaluateBatch(objects, 0);
+    }
+
+    /**
+     * 批量评估结果，不通过的结果数量达到上限后结束执行
+     * <p>默认在当前线程中按顺序调用{@link #evaluate(Object)}</p>
+     *
+     * @param objects      待校验的对象集合
+     * @param illegalLimit 不通过的结果数量上限，小于等于0时不限制
+     * @return 引擎执行的布尔结果集合，与待校验对象的顺序一致，未执行的对象对应的结果为null
+     */
+    default List<Boolean> evaluateBatch(List<?> objects, int illegalLimit) {
+        List<Boolean> results = Arrays.asList(new Boolean[objects.size()]);
+        int illegalCount = 0;
+        for (int i = 0; i < results.size() && (illegalLimit <= 0 || illegalCount < illegalLimit); i++) {
+            boolean illegal = this.evaluate(objects.get(i));
+            results.set(i, illegal);
+            if (illegal) {
+                illegalCount++;
+            }
+        }
+        return results;
+    }
+
     /**
      * 获取引擎中的所有规则定义
      *
@@ -45,6 +135,20 @@ public interface RulesEngine {
      */
     List<RuleDefinition> getRuleDefinitions();
 
+    /**
+     * 获取引擎中所有规则表达式的编译状态
+     *
+     * @return 规则编号与编译状态的映射，按规则执行的顺序排列
+     */
+    default Map<String, CompileStatus> getCompileStatus() {
+        Map<String, CompileStatus> compileStatus = new LinkedHashMap<>();
+        for (RuleDefinition ruleDefinition : this.getRuleDefinitions()) {
+            String ruleCode = ruleDefinition.getRuleCode();
+            compileStatus.put(ruleCode, this.getRule(ruleCode).getCompileStatus());
+        }
+        return compileStatus;
+    }
+
     /**
      * 根据规则编号获取引擎中的规则
      *
@@ -67,6 +171,22 @@ public interface RulesEngine {
      */
     void addRule(Collection<String> ruleCodes);
 
+    /**
+     * 批量加入与移除规则
+     * <p>先移除再加入，必须的规则不能被移除。默认逐个调用{@link #removeRule(String)}后调用{@link #addRule(Collection)}，
+     * 不是原子操作，中途失败时已执行的修改不会撤销，执行中的校验可能看到部分修改；
+     * {@link AbstractRulesEngine}校验失败时不做任何修改，并且只构建一次规则快照与执行计划</p>
+     *
+     * @param addRuleCodes    加入的规则编号集合
+     * @param removeRuleCodes 移除的规则编号集合
+     */
+    default void updateRules(Collection<String> addRuleCodes, Collection<String> removeRuleCodes) {
+        for (String ruleCode : removeRuleCodes) {
+            this.removeRule(ruleCode);
+        }
+        this.addRule(addRuleCodes);
+    }
+
     /**
      * 移除规则
      *
@@ -0,0 +1,92 @@
+package info.lostred.ruler.expression;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 带缓存的表达式解析器
+ * <p>缓存运行时解析的表达式，缓存容量有上限，超出时淘汰最久未使用的表达式</p>
+ *
+ * @author lostred
+ */
+public class CachingExpressionParser extends SpelExpressionParser {
+    /**
+     * 默认的缓存容量
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * 解析器配置
+     */
+    private final SpelParserConfiguration configuration;
+    /**
+     * 表达式缓存
+     */
+    private final Map<String, Expression> cache;
+    /**
+     * 与该解析器配置一致但不开启编译器的解析器
+     */
+    private final SpelExpressionParser interpreter;
+
+    public CachingExpressionParser() {
+        this(new SpelParserConfiguration(), DEFAULT_CAPACITY);
+    }
+
+    public CachingExpressionParser(SpelParserConfiguration configuration, int capacity) {
+        super(configuration);
+        this.configuration = configuration;
+        this.interpreter = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.OFF,
+                configuration.getCompilerClassLoader(), configuration.isAutoGrowNullReferences(),
+                configuration.isAutoGrowCollections(), configuration.getMaximumAutoGrowSize()));
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0.");
+        }
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Expression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                return this.size() > capacity;
+            }
+        });
+    }
+
+    @Override
+    public Expression parseExpression(String expressionString, ParserContext context) throws ParseException {
+        if (context != null && context.isTemplate()) {
+            return super.parseExpression(expressionString, context);
+        }
+        Expression expression = this.cache.get(expressionString);
+        if (expression == null) {
+            expression = super.parseExpression(expressionString, context);
+            this.cache.put(expressionString, expression);
+        }
+        return expression;
+    }
+
+    public SpelParserConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * 获取与该解析器配置一致但不开启编译器的解析器，解析的表达式不进入缓存
+     *
+     * @return 仅解释执行的表达式解析器
+     */
+    public ExpressionParser getInterpreter() {
+        return interpreter;
+    }
+
+    /**
+     * 清空表达式缓存
+     */
+    public void clearCache() {
+        this.cache.clear();
+    }
+}
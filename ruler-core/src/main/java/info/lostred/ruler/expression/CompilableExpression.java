@@ -0,0 +1,189 @@
+package info.lostred.ruler.expression;
+
+import info.lostred.ruler.constant.CompileStatus;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可编译的表达式
+ * <p>编译器开启时，表达式首次解释执行成功后通过{@link SpelExpression#compileExpression()}尝试编译，并记录编译状态。
+ * 编译后的表达式执行失败时，回退为由解释器解析的仅解释执行的表达式。
+ * MIXED模式下SpEL会在编译后的表达式执行失败时自行退回解释执行而不抛出异常，
+ * 因此MIXED模式的表达式改由解释器重新解析，由本类负责编译，执行失败时SpEL抛出异常并回退。
+ * 同一时刻只有一个线程尝试编译，其余线程直接解释执行而不等待</p>
+ *
+ * @author lostred
+ */
+public final class CompilableExpression {
+    /**
+     * 尝试编译的次数上限，超过后认为表达式无法编译
+     */
+    public static final int COMPILE_ATTEMPTS_THRESHOLD = 100;
+    /**
+     * 仅解释执行的表达式解析器，用于回退
+     */
+    private final ExpressionParser interpreter;
+    /**
+     * 编译器模式
+     */
+    private final SpelCompilerMode compilerMode;
+    /**
+     * 表达式
+     */
+    private volatile Expression expression;
+    /**
+     * 编译状态
+     */
+    private volatile CompileStatus compileStatus = CompileStatus.INTERPRETED;
+    /**
+     * 是否执行过
+     */
+    private volatile boolean evaluated;
+    /**
+     * 尝试编译的次数
+     */
+    private final AtomicInteger compileAttempts = new AtomicInteger();
+    /**
+     * 是否有线程正在尝试编译
+     */
+    private final AtomicBoolean compiling = new AtomicBoolean();
+
+    public CompilableExpression(Expression expression, SpelCompilerMode compilerMode) {
+        this(expression, compilerMode, new SpelExpressionParser());
+    }
+
+    /**
+     * @param expression   表达式
+     * @param compilerMode 编译器模式
+     * @param interpreter  重新解析表达式的解析器，应与解析表达式的解析器配置一致且不开启编译器
+     */
+    public CompilableExpression(Expression expression, SpelCompilerMode compilerMode, ExpressionParser interpreter) {
+        this.compilerMode = compilerMode == null ? SpelCompilerMode.OFF : compilerMode;
+        this.interpreter = interpreter;
+        this.expression = this.compilerMode == SpelCompilerMode.MIXED && expression instanceof SpelExpression ?
+                interpreter.parseExpression(expression.getExpressionString()) : expression;
+    }
+
+    /**
+     * 在评估上下文中获取表达式的值
+     *
+     * @param context 评估上下文
+     * @return 表达式的值
+     * @throws EvaluationException 表达式执行失败时
+     */
+    public Object getValue(EvaluationContext context) throws EvaluationException {
+        return this.getValue(context, null);
+    }
+
+    /**
+     * 在评估上下文中获取表达式的值
+     *
+     * @param context           评估上下文
+     * @param desiredResultType 期望的值类型
+     * @param <T>               值类型
+     * @return 表达式的值
+     * @throws EvaluationException 表达式执行失败时
+     */
+    public <T> T getValue(EvaluationContext context, Class<T> desiredResultType) throws EvaluationException {
+        Expression expression = this.expression;
+        T value;
+        try {
+            value = expression.getValue(context, desiredResultType);
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw e;
+            }
+            this.fallback(expression);
+            return this.expression.getValue(context, desiredResultType);
+        }
+        if (!this.evaluated) {
+            this.evaluated = true;
+        }
+        if (this.compileStatus == CompileStatus.INTERPRETED && this.compilerMode != SpelCompilerMode.OFF) {
+            this.compile(expression);
+        }
+        return value;
+    }
+
+    /**
+     * 尝试编译表达式，已有线程在尝试编译或尝试次数达到上限时直接返回
+     *
+     * @param expression 表达式
+     */
+    private void compile(Expression expression) {
+        if (!(expression instanceof SpelExpression)) {
+            this.compileStatus = CompileStatus.FALLBACK;
+            return;
+        }
+        if (this.compileAttempts.get() >= COMPILE_ATTEMPTS_THRESHOLD || !this.compiling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (this.compileStatus != CompileStatus.INTERPRETED || this.expression != expression) {
+                return;
+            }
+            if (((SpelExpression) expression).compileExpression()) {
+                this.compiled(expression);
+            } else if (this.compileAttempts.incrementAndGet() >= COMPILE_ATTEMPTS_THRESHOLD) {
+                this.compileStatus = CompileStatus.FALLBACK;
+            }
+        } finally {
+            this.compiling.set(false);
+        }
+    }
+
+    /**
+     * 记录表达式编译成功，编译期间表达式已被其他线程回退时不记录
+     *
+     * @param expression 编译成功的表达式
+     */
+    private synchronized void compiled(Expression expression) {
+        if (this.expression == expression) {
+            this.compileStatus = CompileStatus.COMPILED;
+        }
+    }
+
+    /**
+     * 回退为仅解释执行的表达式
+     *
+     * @param expression 执行失败的表达式
+     */
+    private synchronized void fallback(Expression expression) {
+        if (this.expression == expression) {
+            this.expression = interpreter.parseExpression(expression.getExpressionString());
+            this.compileStatus = CompileStatus.FAILED;
+        }
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    public CompileStatus getCompileStatus() {
+        return compileStatus;
+    }
+
+    /**
+     * 是否执行过
+     * <p>共享条件槽或数组参数的规则由同组的其他规则计算表达式，自身的表达式可能从未执行</p>
+     *
+     * @return 执行过返回true，否则返回false
+     */
+    public boolean isEvaluated() {
+        return evaluated;
+    }
+}
@@ -0,0 +1,262 @@
+package info.lostred.ruler.expression;
+
+import info.lostred.ruler.constant.CompileStatus;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.exception.RulesException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static info.lostred.ruler.constant.SpELConstants.ELEMENT;
+import static info.lostred.ruler.constant.SpELConstants.INDEX;
+import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
+
+/**
+ * 预解析的表达式
+ * <p>规则注册时根据规则定义一次性解析参数、条件与断定表达式，规则定义的表达式未变化时可重复使用。
+ * 参数表达式含"[#i]"时，表达式中的"数组参数[#i]"会被替换为当前元素变量"#element"，
+ * 使规则直接读取当前元素，而不必通过下标重新访问集合</p>
+ *
+ * @author lostred
+ */
+public final class PreparedExpressions {
+    private final String parameterExp;
+    private final String conditionExp;
+    private final String predicateExp;
+    /**
+     * 参数表达式
+     */
+    private final CompilableExpression parameterExpression;
+    /**
+     * 条件表达式
+     */
+    private final CompilableExpression conditionExpression;
+    /**
+     * 断定表达式
+     */
+    private final CompilableExpression predicateExpression;
+    /**
+     * 数组参数表达式
+     * <p>参数表达式中"[#i]"之前的部分，参数表达式不含"[#i]"时为null</p>
+     */
+    private final CompilableExpression arrayExpression;
+    /**
+     * 违规字段名模板
+     * <p>参数表达式按"#i"切分的片段，字段名由片段与下标拼接而成，参数表达式不含"[#i]"时为null</p>
+     */
+    private final String[] fieldNameSegments;
+
+    /**
+     * 根据规则定义预解析表达式
+     *
+     * @param ruleDefinition 规则定义
+     * @param parser         表达式解析器
+     * @return 预解析的表达式
+     * @throws RulesException 表达式解析失败时
+     */
+    public static PreparedExpressions of(RuleDefinition ruleDefinition, ExpressionParser parser) {
+        return new PreparedExpressions(ruleDefinition, parser);
+    }
+
+    private PreparedExpressions(RuleDefinition ruleDefinition, ExpressionParser parser) {
+        this.parameterExp = ruleDefinition.getParameterExp();
+        this.conditionExp = ruleDefinition.getConditionExp();
+        this.predicateExp = ruleDefinition.getPredicateExp();
+        SpelCompilerMode compilerMode = parser instanceof CachingExpressionParser ?
+                ((CachingExpressionParser) parser).getConfiguration().getCompilerMode() : SpelCompilerMode.OFF;
+        String arrayExp = null;
+        if (parameterExp != null && parameterExp.contains(INDEX_LABEL)) {
+            arrayExp = parameterExp.substring(0, parameterExp.indexOf(INDEX_LABEL));
+        }
+        this.parameterExpression = parse(parser, compilerMode, toElementExp(parameterExp, arrayExp), ruleDefinition);
+        this.conditionExpression = parse(parser, compilerMode, toElementExp(conditionExp, arrayExp), ruleDefinition);
+        this.predicateExpression = parse(parser, compilerMode, toElementExp(predicateExp, arrayExp), ruleDefinition);
+        this.arrayExpression = arrayExp == null ? null : parse(parser, compilerMode, arrayExp, ruleDefinition);
+        this.fieldNameSegments = arrayExp == null ? null : split(parameterExp);
+    }
+
+    /**
+     * 将表达式中的"数组参数[#i]"替换为当前元素变量
+     * <p>字符串字面量中的内容，以及作为其他属性路径一部分的匹配不会被替换</p>
+     *
+     * @param expressionString 表达式字符串
+     * @param arrayExp         数组参数表达式字符串
+     * @return 替换后的表达式字符串
+     */
+    private static String toElementExp(String expressionString, String arrayExp) {
+        if (expressionString == null || arrayExp == null || arrayExp.trim().isEmpty()) {
+            return expressionString;
+        }
+        String target = arrayExp + INDEX_LABEL;
+        StringBuilder sb = new StringBuilder(expressionString.length());
+        char quote = 0;
+        int i = 0;
+        while (i < expressionString.length()) {
+            char c = expressionString.charAt(i);
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            } else if (quote == 0 && expressionString.startsWith(target, i)
+                    && (i == 0 || !isPathPart(expressionString.charAt(i - 1)))) {
+                sb.append(ELEMENT);
+                i += target.length();
+                continue;
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 将参数表达式按"#i"切分为违规字段名模板
+     *
+     * @param parameterExp 参数表达式字符串
+     * @return 字段名模板
+     */
+    private static String[] split(String parameterExp) {
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        int to;
+        while ((to = parameterExp.indexOf(INDEX, from)) >= 0) {
+            segments.add(parameterExp.substring(from, to));
+            from = to + INDEX.length();
+        }
+        segments.add(parameterExp.substring(from));
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 根据下标获取违规字段名
+     * <p>参数表达式含"[#i]"时将其中的"#i"替换为下标，否则返回参数表达式</p>
+     *
+     * @param index 当前下标
+     * @return 违规字段名
+     */
+    public String getFieldName(Object index) {
+        String[] segments = this.fieldNameSegments;
+        if (segments == null) {
+            return parameterExp;
+        }
+        String indexString = String.valueOf(index);
+        StringBuilder sb = new StringBuilder(parameterExp.length() + (indexString.length() - 2) * (segments.length - 1));
+        sb.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            sb.append(indexString).append(segments[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 判断字符是否属于属性路径
+     *
+     * @param c 字符
+     * @return 是返回true，否则返回false
+     */
+    private static boolean isPathPart(char c) {
+        return Character.isJavaIdentifierPart(c) || c == '.' || c == '#' || c == '@';
+    }
+
+    /**
+     * 解析表达式，表达式为空时返回null
+     *
+     * @param parser           表达式解析器
+     * @param compilerMode     编译器模式
+     * @param expressionString 表达式字符串
+     * @param ruleDefinition   规则定义
+     * @return 表达式
+     */
+    private static CompilableExpression parse(ExpressionParser parser, SpelCompilerMode compilerMode,
+                                              String expressionString, RuleDefinition ruleDefinition) {
+        if (expressionString == null || expressionString.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Expression expression = parser.parseExpression(expressionString);
+            //回退时使用与原解析器配置一致的解释器重新解析
+            ExpressionParser interpreter = parser instanceof CachingExpressionParser ?
+                    ((CachingExpressionParser) parser).getInterpreter() : parser;
+            return new CompilableExpression(expression, compilerMode, interpreter);
+        } catch (ParseException e) {
+            throw new RulesException("Expression '" + expressionString + "' cannot be parsed.", e, ruleDefinition);
+        }
+    }
+
+    /**
+     * 判断是否由该规则定义的表达式预解析而来
+     *
+     * @param ruleDefinition 规则定义
+     * @return 是返回true，否则返回false
+     */
+    public boolean isPreparedFrom(RuleDefinition ruleDefinition) {
+        return Objects.equals(parameterExp, ruleDefinition.getParameterExp())
+                && Objects.equals(conditionExp, ruleDefinition.getConditionExp())
+                && Objects.equals(predicateExp, ruleDefinition.getPredicateExp());
+    }
+
+    /**
+     * 参数表达式是否包含数组下标"[#i]"
+     *
+     * @return 包含返回true，否则返回false
+     */
+    public boolean isIndexed() {
+        return arrayExpression != null;
+    }
+
+    /**
+     * 获取规则执行路径上表达式的编译状态
+     * <p>只统计条件、断定与数组参数表达式，参数表达式仅在违规时执行，不影响规则的执行效率。
+     * 任一表达式执行失败时为失败，任一表达式无法编译时为回退，所有表达式都已编译时为已编译，否则为解释执行。
+     * 从未执行过的表达式(由共享条件槽或数组参数的其他规则代为计算)不参与统计</p>
+     *
+     * @return 编译状态
+     */
+    public CompileStatus getCompileStatus() {
+        boolean fallback = false;
+        boolean interpreted = false;
+        boolean evaluated = false;
+        for (CompilableExpression expression : new CompilableExpression[]{
+                conditionExpression, predicateExpression, arrayExpression}) {
+            if (expression == null) {
+                continue;
+            }
+            CompileStatus compileStatus = expression.getCompileStatus();
+            if (CompileStatus.INTERPRETED.equals(compileStatus) && !expression.isEvaluated()) {
+                continue;
+            }
+            evaluated = true;
+            if (CompileStatus.FAILED.equals(compileStatus)) {
+                return CompileStatus.FAILED;
+            }
+            fallback = fallback || CompileStatus.FALLBACK.equals(compileStatus);
+            interpreted = interpreted || CompileStatus.INTERPRETED.equals(compileStatus);
+        }
+        if (fallback) {
+            return CompileStatus.FALLBACK;
+        }
+        return interpreted || !evaluated ?
+                CompileStatus.INTERPRETED : CompileStatus.COMPILED;
+    }
+
+    public CompilableExpression getParameterExpression() {
+        return parameterExpression;
+    }
+
+    public CompilableExpression getConditionExpression() {
+        return conditionExpression;
+    }
+
+    public CompilableExpression getPredicateExpression() {
+        return predicateExpression;
+    }
+
+    public CompilableExpression getArrayExpression() {
+        return arrayExpression;
+    }
+}
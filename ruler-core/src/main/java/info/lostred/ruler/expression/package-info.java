@@ -0,0 +1,8 @@
+/**
+ * <h2>表达式包</h2>
+ * <p>提供带缓存的表达式解析器，以及规则预解析的表达式</p>
+ *
+ * @see info.lostred.ruler.expression.CachingExpressionParser
+ * @see info.lostred.ruler.expression.PreparedExpressions
+ */
+package info.lostred.ruler.expression;
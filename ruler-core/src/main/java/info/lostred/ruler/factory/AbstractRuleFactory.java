@@ -1,12 +1,15 @@
 package info.lostred.ruler.factory;
 
+import info.lostred.ruler.compiler.RuleCompiler;
 import info.lostred.ruler.domain.RuleDefinition;
 import info.lostred.ruler.exception.RulesException;
-import info.lostred.ruler.proxy.RuleProxy;
+import info.lostred.ruler.expression.CachingExpressionParser;
 import info.lostred.ruler.rule.AbstractRule;
+import org.springframework.expression.ExpressionParser;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -20,6 +23,29 @@ import java.util.stream.Collectors;
 public abstract class AbstractRuleFactory implements RuleFactory {
     protected final Map<String, RuleDefinition> ruleDefinitionMap = new ConcurrentHashMap<>();
     protected final Map<String, AbstractRule> rules = new ConcurrentHashMap<>();
+    /**
+     * 业务类型与该业务类型下规则的索引
+     * <p>注册与销毁规则时同步维护，按业务类型查找规则时无需遍历所有规则</p>
+     */
+    protected final Map<String, Map<String, AbstractRule>> businessTypeIndex = new ConcurrentHashMap<>();
+    /**
+     * 表达式解析器
+     * <p>用于规则注册时预解析规则定义中的表达式</p>
+     */
+    protected final ExpressionParser parser;
+    /**
+     * 规则编译器
+     * <p>为null时规则以SpEL解释执行</p>
+     */
+    private volatile RuleCompiler ruleCompiler;
+
+    public AbstractRuleFactory() {
+        this(new CachingExpressionParser());
+    }
+
+    public AbstractRuleFactory(ExpressionParser parser) {
+        this.parser = parser;
+    }
 
     @Override
     public void registerRuleDefinition(RuleDefinition ruleDefinition) {
@@ -32,26 +58,33 @@ public abstract class AbstractRuleFactory implements RuleFactory {
     @Override
     public void registerRule(AbstractRule rule) {
         RuleDefinition ruleDefinition = rule.getRuleDefinition();
+        rule.prepare(parser);
+        rule.setRuleCompiler(ruleCompiler);
         this.ruleDefinitionMap.put(ruleDefinition.getRuleCode(), ruleDefinition);
-        this.rules.put(ruleDefinition.getRuleCode(), rule);
+        this.putRule(rule);
     }
 
     @Override
     public void createRule(RuleDefinition ruleDefinition) {
         AbstractRule rule = this.builder(ruleDefinition).build();
-        this.rules.put(ruleDefinition.getRuleCode(), rule);
+        this.putRule(rule);
     }
 
     @Override
-    public void destroyAllRules() {
+    public synchronized void destroyAllRules() {
         this.ruleDefinitionMap.clear();
         this.rules.clear();
+        this.businessTypeIndex.clear();
     }
 
     @Override
-    public AbstractRule destroyRule(String ruleCode) {
+    public synchronized AbstractRule destroyRule(String ruleCode) {
         this.ruleDefinitionMap.remove(ruleCode);
-        return this.rules.remove(ruleCode);
+        AbstractRule rule = this.rules.remove(ruleCode);
+        if (rule != null) {
+            this.unindex(rule);
+        }
+        return rule;
     }
 
     @Override
@@ -61,9 +94,8 @@ public abstract class AbstractRuleFactory implements RuleFactory {
 
     @Override
     public List<AbstractRule> findRules(String businessType) {
-        return this.rules.values().stream()
-                .filter(e -> e.getRuleDefinition().getBusinessType().equals(businessType))
-                .collect(Collectors.toList());
+        Map<String, AbstractRule> rules = this.businessTypeIndex.get(businessType);
+        return rules == null ? new ArrayList<>() : new ArrayList<>(rules.values());
     }
 
     @Override
@@ -73,6 +105,46 @@ public abstract class AbstractRuleFactory implements RuleFactory {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 保存规则并维护业务类型索引，规则编号已存在时替换原有规则
+     *
+     * @param rule 规则
+     */
+    protected synchronized void putRule(AbstractRule rule) {
+        AbstractRule old = this.rules.put(rule.getRuleDefinition().getRuleCode(), rule);
+        if (old != null) {
+            this.unindex(old);
+        }
+        this.businessTypeIndex.computeIfAbsent(rule.getRuleDefinition().getBusinessType(),
+                        key -> new ConcurrentHashMap<>())
+                .put(rule.getRuleDefinition().getRuleCode(), rule);
+    }
+
+    private void unindex(AbstractRule rule) {
+        RuleDefinition ruleDefinition = rule.getRuleDefinition();
+        Map<String, AbstractRule> rules = this.businessTypeIndex.get(ruleDefinition.getBusinessType());
+        if (rules != null) {
+            rules.remove(ruleDefinition.getRuleCode(), rule);
+            if (rules.isEmpty()) {
+                this.businessTypeIndex.remove(ruleDefinition.getBusinessType(), rules);
+            }
+        }
+    }
+
+    public RuleCompiler getRuleCompiler() {
+        return ruleCompiler;
+    }
+
+    /**
+     * 设置规则编译器，对已有的规则与之后注册的规则生效
+     *
+     * @param ruleCompiler 规则编译器，为null时关闭编译
+     */
+    public void setRuleCompiler(RuleCompiler ruleCompiler) {
+        this.ruleCompiler = ruleCompiler;
+        this.rules.values().forEach(rule -> rule.setRuleCompiler(ruleCompiler));
+    }
+
     /**
      * 获取规则的建造者
      *
@@ -80,7 +152,7 @@ public abstract class AbstractRuleFactory implements RuleFactory {
      * @return 某个规则的建造者实例对象
      */
     public Builder builder(RuleDefinition ruleDefinition) {
-        return new Builder(ruleDefinition);
+        return new Builder(ruleDefinition, parser, ruleCompiler);
     }
 
     /**
@@ -88,9 +160,13 @@ public abstract class AbstractRuleFactory implements RuleFactory {
      */
     private static class Builder {
         private final RuleDefinition ruleDefinition;
+        private final ExpressionParser parser;
+        private final RuleCompiler ruleCompiler;
 
-        private Builder(RuleDefinition ruleDefinition) {
+        private Builder(RuleDefinition ruleDefinition, ExpressionParser parser, RuleCompiler ruleCompiler) {
             this.ruleDefinition = ruleDefinition;
+            this.parser = parser;
+            this.ruleCompiler = ruleCompiler;
         }
 
         public AbstractRule build() {
@@ -99,10 +175,11 @@ public abstract class AbstractRuleFactory implements RuleFactory {
                 Constructor<?> constructor = ruleClass.getDeclaredConstructor(RuleDefinition.class);
                 Object object = constructor.newInstance(ruleDefinition);
                 if (object instanceof AbstractRule) {
-                    //创建代理器
-                    RuleProxy proxy = new RuleProxy((AbstractRule) object);
-                    //拿到代理对象
-                    return proxy.newProxyInstance();
+                    //预解析表达式
+                    ((AbstractRule) object).prepare(parser);
+                    //设置规则编译器
+                    ((AbstractRule) object).setRuleCompiler(ruleCompiler);
+                    return (AbstractRule) object;
                 }
                 throw new RulesException("Internal error: " + ruleClass.getName() +
                         " cannot be instantiated, because it is not instance of AbstractRule.", this.ruleDefinition);
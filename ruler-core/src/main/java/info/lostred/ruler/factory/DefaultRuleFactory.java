@@ -4,6 +4,7 @@ import info.lostred.ruler.annotation.Rule;
 import info.lostred.ruler.domain.RuleDefinition;
 import info.lostred.ruler.rule.AbstractRule;
 import info.lostred.ruler.util.PackageScanUtils;
+import org.springframework.expression.ExpressionParser;
 
 /**
  * 默认的规则工厂
@@ -18,6 +19,12 @@ public class DefaultRuleFactory extends AbstractRuleFactory {
         this.registerFromPackages();
     }
 
+    public DefaultRuleFactory(ExpressionParser parser, String... scanPackages) {
+        super(parser);
+        this.scanPackages = scanPackages;
+        this.registerFromPackages();
+    }
+
     /**
      * 从包中注册规则信息与规则
      */
@@ -25,13 +32,11 @@ public class DefaultRuleFactory extends AbstractRuleFactory {
         if (scanPackages == null || scanPackages.length == 0) {
             return;
         }
-        for (String packageName : scanPackages) {
-            PackageScanUtils.getClasses(packageName).stream()
-                    .filter(AbstractRule.class::isAssignableFrom)
-                    .filter(e -> e.isAnnotationPresent(Rule.class))
-                    .map(this::buildRuleDefinition)
-                    .forEach(this::registerRuleDefinition);
-        }
+        PackageScanUtils.getRuleClasses(scanPackages).stream()
+                .filter(AbstractRule.class::isAssignableFrom)
+                .filter(e -> e.isAnnotationPresent(Rule.class))
+                .map(this::buildRuleDefinition)
+                .forEach(this::registerRuleDefinition);
         for (String ruleCode : this.ruleDefinitionMap.keySet()) {
             RuleDefinition ruleDefinition = this.ruleDefinitionMap.get(ruleCode);
             this.createRule(ruleDefinition);
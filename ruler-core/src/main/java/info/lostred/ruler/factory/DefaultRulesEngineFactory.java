@@ -27,9 +27,14 @@ public class DefaultRulesEngineFactory implements RulesEngineFactory {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 并行重新加载所有规则引擎的规则
+     * <p>规则工厂按业务类型维护了规则索引，每个引擎只读取本业务类型的规则，
+     * 引擎之间互不影响，因此交由公共的ForkJoinPool并行重建</p>
+     */
     @Override
     public void reloadRules() {
-        rulesEngines.values().forEach(RulesEngine::reloadRules);
+        rulesEngines.values().parallelStream().forEach(RulesEngine::reloadRules);
     }
 
     @Override
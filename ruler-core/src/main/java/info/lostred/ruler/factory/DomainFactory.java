@@ -1,6 +1,7 @@
 package info.lostred.ruler.factory;
 
 import info.lostred.ruler.domain.PropertyInfo;
+import info.lostred.ruler.engine.DomainPropertyAccessor;
 import info.lostred.ruler.util.PackageScanUtils;
 
 import java.beans.BeanInfo;
@@ -26,6 +27,10 @@ public class DomainFactory {
      */
     private final Map<String, List<PropertyInfo>> propertyInfoMap = new HashMap<>();
     private final String[] scanPackages;
+    /**
+     * 领域模型类的属性访问器，首次获取时生成
+     */
+    private volatile List<DomainPropertyAccessor> propertyAccessors;
 
     public DomainFactory(String... scanPackages) {
         this.scanPackages = scanPackages;
@@ -39,11 +44,9 @@ public class DomainFactory {
         if (scanPackages == null || scanPackages.length == 0) {
             throw new IllegalArgumentException("Have not to set the scan packages.");
         }
-        for (String packageName : scanPackages) {
-            PackageScanUtils.getClasses(packageName).stream()
-                    .peek(this.domainSet::add)
-                    .forEach(e -> this.propertyInfoMap.put(e.getName(), this.getPropertyList(e)));
-        }
+        PackageScanUtils.getDomainClasses(scanPackages).stream()
+                .peek(this.domainSet::add)
+                .forEach(e -> this.propertyInfoMap.put(e.getName(), this.getPropertyList(e)));
     }
 
     /**
@@ -62,6 +65,39 @@ public class DomainFactory {
         }
     }
 
+    /**
+     * 获取所有领域模型类的属性访问器
+     * <p>每个领域模型类的每个属性生成一个访问器，规则引擎将其注册到评估上下文中，以代替反射读取属性</p>
+     *
+     * @return 属性访问器集合
+     */
+    public List<DomainPropertyAccessor> getPropertyAccessors() {
+        List<DomainPropertyAccessor> propertyAccessors = this.propertyAccessors;
+        if (propertyAccessors == null) {
+            synchronized (this) {
+                propertyAccessors = this.propertyAccessors;
+                if (propertyAccessors == null) {
+                    propertyAccessors = new ArrayList<>();
+                    for (Class<?> domainClass : this.domainSet) {
+                        propertyAccessors.addAll(this.createPropertyAccessors(domainClass));
+                    }
+                    propertyAccessors = Collections.unmodifiableList(propertyAccessors);
+                    this.propertyAccessors = propertyAccessors;
+                }
+            }
+        }
+        return propertyAccessors;
+    }
+
+    private List<DomainPropertyAccessor> createPropertyAccessors(Class<?> domainClass) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(domainClass, Object.class);
+            return DomainPropertyAccessor.of(domainClass, Arrays.asList(beanInfo.getPropertyDescriptors()));
+        } catch (IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * 获取校验类的属性信息集合
      *
@@ -0,0 +1,45 @@
+package info.lostred.ruler.interceptor;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.rule.AbstractRule;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 打印日志的规则拦截器
+ * <p>使用规则类名称的日志记录器在CONFIG级别打印断定结果与违规字段，
+ * 日志级别未开启时不拼接日志内容</p>
+ *
+ * @author lostred
+ */
+public class LoggingRuleInterceptor implements RuleInterceptor {
+    /**
+     * 规则类与日志记录器的映射
+     */
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<Logger>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return Logger.getLogger(type.getName());
+        }
+    };
+
+    @Override
+    public void afterJudge(AbstractRule rule, Object object, boolean illegal, long elapsedNanos) {
+        Logger logger = LOGGERS.get(rule.getClass());
+        if (logger.isLoggable(Level.CONFIG)) {
+            logger.config("ruleCode=" + rule.getRuleDefinition().getRuleCode() +
+                    ", grade=" + (illegal ? rule.getRuleDefinition().getGrade() : Grade.QUALIFIED.name()));
+        }
+    }
+
+    @Override
+    public void afterCollectMappings(AbstractRule rule, Object object, Map<String, Object> mappings) {
+        Logger logger = LOGGERS.get(rule.getClass());
+        if (!mappings.isEmpty() && logger.isLoggable(Level.CONFIG)) {
+            logger.config("ruleCode=" + rule.getRuleDefinition().getRuleCode() +
+                    ", report=" + mappings);
+        }
+    }
+}
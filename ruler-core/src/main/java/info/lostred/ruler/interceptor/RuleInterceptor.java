@@ -0,0 +1,71 @@
+package info.lostred.ruler.interceptor;
+
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.RulesEngine;
+import info.lostred.ruler.rule.AbstractRule;
+
+import java.util.Map;
+
+/**
+ * 规则拦截器
+ * <p>由规则引擎在规则方法执行后以及单个对象执行完成后直接回调，回调在执行规则的线程中同步进行，
+ * 实现类需要线程安全。只在引擎注册了拦截器时才计时与回调</p>
+ *
+ * @author lostred
+ */
+public interface RuleInterceptor {
+    /**
+     * 前置条件执行后回调
+     * <p>规范化后相同的前置条件在单次执行中只计算一次，其余规则复用计算结果时同样回调，耗时为0</p>
+     *
+     * @param rule         规则
+     * @param object       参数
+     * @param supported    是否满足前置条件
+     * @param elapsedNanos 耗时(纳秒)
+     */
+    default void afterSupports(AbstractRule rule, Object object, boolean supported, long elapsedNanos) {
+    }
+
+    /**
+     * 断定执行后回调
+     *
+     * @param rule         规则
+     * @param object       参数
+     * @param illegal      是否违规
+     * @param elapsedNanos 耗时(纳秒)
+     */
+    default void afterJudge(AbstractRule rule, Object object, boolean illegal, long elapsedNanos) {
+    }
+
+    /**
+     * 收集违规字段与值后回调
+     *
+     * @param rule     规则
+     * @param object   参数
+     * @param mappings 违规字段与值的映射关系
+     */
+    default void afterCollectMappings(AbstractRule rule, Object object, Map<String, Object> mappings) {
+    }
+
+    /**
+     * 引擎对单个对象执行完成后回调
+     *
+     * @param rulesEngine  规则引擎
+     * @param object       待校验的对象
+     * @param result       引擎执行的结果
+     * @param elapsedNanos 耗时(纳秒)
+     */
+    default void afterExecute(RulesEngine rulesEngine, Object object, Result result, long elapsedNanos) {
+    }
+
+    /**
+     * 引擎对单个对象评估完成后回调
+     *
+     * @param rulesEngine  规则引擎
+     * @param object       待校验的对象
+     * @param illegal      是否违规
+     * @param elapsedNanos 耗时(纳秒)
+     */
+    default void afterEvaluate(RulesEngine rulesEngine, Object object, boolean illegal, long elapsedNanos) {
+    }
+}
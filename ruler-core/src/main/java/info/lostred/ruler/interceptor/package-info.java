@@ -0,0 +1,9 @@
+/**
+ * <h2>规则拦截器包</h2>
+ * <p>规则引擎在执行规则的前置条件、断定与收集时直接回调拦截器，用于日志、指标与链路追踪。
+ * 未注册拦截器时规则直接执行，没有额外开销</p>
+ *
+ * @see info.lostred.ruler.interceptor.RuleInterceptor
+ * @see info.lostred.ruler.interceptor.LoggingRuleInterceptor
+ */
+package info.lostred.ruler.interceptor;
@@ -0,0 +1,243 @@
+package info.lostred.ruler.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.RulesEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * JSON数组流式校验器
+ * <p>使用Jackson的流式解析器逐条读取JSON数组中的记录，每读取一条即交给规则引擎执行并输出结果，
+ * 已处理的记录不被保留，内存占用与数组大小无关。记录默认读取为{@link JsonNode}，
+ * 由规则引擎直接校验；指定记录类型时绑定为该类型后校验</p>
+ *
+ * @author lostred
+ */
+public class JsonArrayValidator {
+    /**
+     * 规则引擎
+     */
+    private final RulesEngine rulesEngine;
+    /**
+     * 记录的读取器
+     */
+    private final ObjectReader reader;
+    /**
+     * 是否只输出校验不合格的结果，评估时只输出违规的结果
+     */
+    private final boolean failedOnly;
+
+    private JsonArrayValidator(RulesEngine rulesEngine, ObjectReader reader, boolean failedOnly) {
+        this.rulesEngine = Objects.requireNonNull(rulesEngine, "rulesEngine");
+        this.reader = reader;
+        this.failedOnly = failedOnly;
+    }
+
+    /**
+     * 构建将记录读取为JsonNode的校验器
+     *
+     * @param rulesEngine  规则引擎
+     * @param objectMapper 对象映射器
+     * @return 校验器
+     */
+    public static JsonArrayValidator of(RulesEngine rulesEngine, ObjectMapper objectMapper) {
+        return of(rulesEngine, objectMapper, JsonNode.class, false);
+    }
+
+    /**
+     * 构建校验器
+     *
+     * @param rulesEngine  规则引擎
+     * @param objectMapper 对象映射器
+     * @param recordType   记录类型，为JsonNode时不绑定
+     * @param failedOnly   是否只输出校验不合格的结果
+     * @return 校验器
+     */
+    public static JsonArrayValidator of(RulesEngine rulesEngine, ObjectMapper objectMapper,
+                                        Class<?> recordType, boolean failedOnly) {
+        return new JsonArrayValidator(rulesEngine, objectMapper.readerFor(recordType), failedOnly);
+    }
+
+    /**
+     * 逐条校验输入流中的JSON数组
+     *
+     * @param inputStream 输入流，由调用方关闭
+     * @param consumer    记录与结果的消费者，按记录在数组中的顺序调用
+     * @return 读取的记录数量
+     * @throws IOException 读取失败或内容不是JSON数组时抛出
+     */
+    public long execute(InputStream inputStream, BiConsumer<Object, Result> consumer) throws IOException {
+        try (JsonParser parser = keepSourceOpen(reader.getFactory().createParser(inputStream))) {
+            return this.forEachRecord(parser, record -> this.handle(record, consumer));
+        }
+    }
+
+    /**
+     * 逐条校验字符流中的JSON数组
+     *
+     * @param characterStream 字符流，由调用方关闭
+     * @param consumer        记录与结果的消费者，按记录在数组中的顺序调用
+     * @return 读取的记录数量
+     * @throws IOException 读取失败或内容不是JSON数组时抛出
+     */
+    public long execute(Reader characterStream, BiConsumer<Object, Result> consumer) throws IOException {
+        try (JsonParser parser = keepSourceOpen(reader.getFactory().createParser(characterStream))) {
+            return this.forEachRecord(parser, record -> this.handle(record, consumer));
+        }
+    }
+
+    /**
+     * 逐条评估输入流中的JSON数组，适用于所有类型的规则引擎
+     *
+     * @param inputStream 输入流，由调用方关闭
+     * @param consumer    记录与评估结果的消费者，评估结果为true表示违规
+     * @return 读取的记录数量
+     * @throws IOException 读取失败或内容不是JSON数组时抛出
+     */
+    public long evaluate(InputStream inputStream, BiConsumer<Object, Boolean> consumer) throws IOException {
+        try (JsonParser parser = keepSourceOpen(reader.getFactory().createParser(inputStream))) {
+            return this.forEachRecord(parser, record -> this.handle(record, consumer, rulesEngine.evaluate(record)));
+        }
+    }
+
+    /**
+     * 逐条评估字符流中的JSON数组，适用于所有类型的规则引擎
+     *
+     * @param characterStream 字符流，由调用方关闭
+     * @param consumer        记录与评估结果的消费者，评估结果为true表示违规
+     * @return 读取的记录数量
+     * @throws IOException 读取失败或内容不是JSON数组时抛出
+     */
+    public long evaluate(Reader characterStream, BiConsumer<Object, Boolean> consumer) throws IOException {
+        try (JsonParser parser = keepSourceOpen(reader.getFactory().createParser(characterStream))) {
+            return this.forEachRecord(parser, record -> this.handle(record, consumer, rulesEngine.evaluate(record)));
+        }
+    }
+
+    /**
+     * 关闭解析器时不关闭输入源，输入源由调用方关闭
+     *
+     * @param parser 解析器
+     * @return 解析器
+     */
+    private static JsonParser keepSourceOpen(JsonParser parser) {
+        return parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    /**
+     * 将输入流中的JSON数组转换为惰性的结果流
+     * <p>结果流每被消费一条才读取一条记录，使用完毕后需要关闭结果流以关闭解析器</p>
+     *
+     * @param inputStream 输入流，结果流关闭时一同关闭
+     * @return 结果流
+     * @throws IOException 内容不是JSON数组时抛出
+     */
+    public Stream<Result> stream(InputStream inputStream) throws IOException {
+        return this.stream(reader.getFactory().createParser(inputStream));
+    }
+
+    /**
+     * 将字符流中的JSON数组转换为惰性的结果流
+     *
+     * @param characterStream 字符流，结果流关闭时一同关闭
+     * @return 结果流
+     * @throws IOException 内容不是JSON数组时抛出
+     */
+    public Stream<Result> stream(Reader characterStream) throws IOException {
+        return this.stream(reader.getFactory().createParser(characterStream));
+    }
+
+    /**
+     * 逐条读取数组中的记录，每次只持有一条记录
+     */
+    private long forEachRecord(JsonParser parser, Consumer<Object> action) throws IOException {
+        startArray(parser);
+        long count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            action.accept(reader.readValue(parser));
+            count++;
+        }
+        return count;
+    }
+
+    private Stream<Result> stream(JsonParser parser) throws IOException {
+        try {
+            startArray(parser);
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+        Spliterator<Result> spliterator = new Spliterators.AbstractSpliterator<Result>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Result> action) {
+                try {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        Result result = execute(reader.readValue(parser));
+                        if (result != null) {
+                            action.accept(result);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void handle(Object record, BiConsumer<Object, Result> consumer) {
+        Result result = this.execute(record);
+        if (result != null) {
+            consumer.accept(record, result);
+        }
+    }
+
+    private void handle(Object record, BiConsumer<Object, Boolean> consumer, boolean illegal) {
+        if (illegal || !failedOnly) {
+            consumer.accept(record, illegal);
+        }
+    }
+
+    /**
+     * 执行一条记录
+     *
+     * @param record 记录
+     * @return 结果，只输出不合格结果且记录合格时返回null
+     */
+    private Result execute(Object record) {
+        Result result = rulesEngine.execute(record);
+        return failedOnly && Grade.QUALIFIED.equals(result.getGrade()) ? null : result;
+    }
+
+    private static void startArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a JSON array but found " + token);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * <h2>JSON流式校验包</h2>
+ * <p>以流式解析器逐条读取大型JSON数组并交给规则引擎执行，内存占用与数组大小无关，
+ * 需要在项目中引入jackson-databind依赖</p>
+ *
+ * @see info.lostred.ruler.json.JsonArrayValidator
+ */
+package info.lostred.ruler.json;
@@ -0,0 +1,185 @@
+package info.lostred.ruler.processor;
+
+import info.lostred.ruler.util.PackageScanUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * ruler索引注解处理器
+ * <p>编译时将标注了{@link info.lostred.ruler.annotation.Rule}的类写入{@value PackageScanUtils#RULES_INDEX}，
+ * 将{@code @DomainScan}包扫描路径下的类以"包扫描路径=全限定类名"的格式写入{@value PackageScanUtils#DOMAINS_INDEX}，
+ * 规则工厂与领域模型工厂启动时读取索引而不再扫描类路径。
+ * 增量编译时只有变化的源文件参与编译，已有的索引条目中未参与本次编译且仍然存在的类被保留</p>
+ *
+ * @author lostred
+ */
+@SupportedAnnotationTypes({RulerIndexProcessor.RULE_ANNOTATION, RulerIndexProcessor.DOMAIN_SCAN_ANNOTATION})
+public class RulerIndexProcessor extends AbstractProcessor {
+    static final String RULE_ANNOTATION = "info.lostred.ruler.annotation.Rule";
+    static final String DOMAIN_SCAN_ANNOTATION = "info.lostred.ruler.annotation.DomainScan";
+    /**
+     * 规则类的全限定类名
+     */
+    private final Set<String> ruleClasses = new TreeSet<>();
+    /**
+     * 领域模型类的包扫描路径
+     */
+    private final Set<String> domainPackages = new TreeSet<>();
+    /**
+     * 本次编译的所有类的全限定类名与所在包的映射
+     */
+    private final Map<String, String> types = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Elements elements = processingEnv.getElementUtils();
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                this.collectTypes((TypeElement) element, elements);
+            }
+        }
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (!(element instanceof TypeElement)) {
+                    continue;
+                }
+                if (RULE_ANNOTATION.equals(annotationName)) {
+                    this.ruleClasses.add(elements.getBinaryName((TypeElement) element).toString());
+                } else if (DOMAIN_SCAN_ANNOTATION.equals(annotationName)) {
+                    this.collectDomainPackages(element, annotation);
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            Set<String> rules = this.readIndex(PackageScanUtils.RULES_INDEX, line -> line);
+            rules.addAll(this.ruleClasses);
+            Set<String> domains = this.readIndex(PackageScanUtils.DOMAINS_INDEX,
+                    line -> line.indexOf('=') < 0 ? null : line.substring(line.indexOf('=') + 1));
+            for (String line : domains) {
+                this.domainPackages.add(line.substring(0, line.indexOf('=')));
+            }
+            domains.addAll(this.getDomainEntries());
+            this.writeIndex(PackageScanUtils.RULES_INDEX, rules);
+            this.writeIndex(PackageScanUtils.DOMAINS_INDEX, domains);
+        }
+        return false;
+    }
+
+    private void collectTypes(TypeElement type, Elements elements) {
+        this.types.put(elements.getBinaryName(type).toString(),
+                elements.getPackageOf(type).getQualifiedName().toString());
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                this.collectTypes((TypeElement) enclosed, elements);
+            }
+        }
+    }
+
+    private void collectDomainPackages(Element element, TypeElement annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().asElement().equals(annotation)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    mirror.getElementValues().entrySet()) {
+                if (!"value".contentEquals(entry.getKey().getSimpleName())) {
+                    continue;
+                }
+                Object value = entry.getValue().getValue();
+                if (value instanceof List) {
+                    for (Object item : (List<?>) value) {
+                        this.domainPackages.add(String.valueOf(((AnnotationValue) item).getValue()));
+                    }
+                } else {
+                    this.domainPackages.add(String.valueOf(value));
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取包扫描路径与其下类的索引条目，包扫描路径包含子包
+     */
+    private Set<String> getDomainEntries() {
+        Set<String> entries = new TreeSet<>();
+        for (String packageName : this.domainPackages) {
+            for (Map.Entry<String, String> entry : this.types.entrySet()) {
+                String typePackage = entry.getValue();
+                if (typePackage.equals(packageName) || typePackage.startsWith(packageName + ".")) {
+                    entries.add(packageName + "=" + entry.getKey());
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 读取上次编译输出的索引，只保留未参与本次编译且仍然存在的类的条目
+     *
+     * @param location  索引文件路径
+     * @param className 从索引条目中取出全限定类名，条目无效时返回null
+     * @return 保留的索引条目
+     */
+    private Set<String> readIndex(String location, Function<String, String> className) {
+        Set<String> lines = new TreeSet<>();
+        Elements elements = processingEnv.getElementUtils();
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    String name = line.isEmpty() || line.startsWith("#") ? null : className.apply(line);
+                    if (name != null && !this.types.containsKey(name) && elements.getTypeElement(name.replace('$', '.')) != null) {
+                        lines.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有上次编译输出的索引
+        }
+        return lines;
+    }
+
+    private void writeIndex(String location, Set<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", location);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + location + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * <h2>注解处理器包</h2>
+ * <p>编译时生成规则类与领域模型类的索引文件，启动时以读取索引代替类路径扫描。
+ * 索引中没有对应包的类时仍回退到类路径扫描，设置系统属性{@code ruler.index.ignore=true}时总是扫描</p>
+ *
+ * @see info.lostred.ruler.processor.RulerIndexProcessor
+ */
+package info.lostred.ruler.processor;
@@ -2,6 +2,7 @@ package info.lostred.ruler.proxy;
 
 import info.lostred.ruler.constant.Grade;
 import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.interceptor.LoggingRuleInterceptor;
 import info.lostred.ruler.rule.AbstractRule;
 import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
@@ -13,9 +14,12 @@ import java.util.logging.Logger;
 
 /**
  * 规则代理
+ * <p>规则工厂不再为规则创建代理，日志由规则引擎直接回调的{@link LoggingRuleInterceptor}打印</p>
  *
  * @author lostred
+ * @deprecated 使用{@link info.lostred.ruler.interceptor.RuleInterceptor}
  */
+@Deprecated
 public class RuleProxy implements MethodInterceptor {
     /**
      * 代理目标对象
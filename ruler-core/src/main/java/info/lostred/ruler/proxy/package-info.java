@@ -2,5 +2,6 @@
  * <h2>动态代理相关的包</h2>
  * <p>对定义的规则类的相关的执行方法增强打印日志功能</p>
  * <p>对动态规则生成代理实现类</p>
+ * <p>已由规则拦截器取代，见{@link info.lostred.ruler.interceptor.RuleInterceptor}</p>
  */
 package info.lostred.ruler.proxy;
\ No newline at end of file
@@ -0,0 +1,308 @@
+package info.lostred.ruler.reactive;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.AbstractRulesEngine;
+import info.lostred.ruler.engine.RulesEngine;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 规则引擎响应式流处理器
+ * <p>订阅待校验对象的发布者，在执行器中并发执行规则，并按对象到达的顺序发布引擎执行的结果。
+ * 正在执行与等待下游请求的对象数量不超过并行度，下游不请求时不会继续向上游请求对象。
+ * 只支持一个下游订阅者</p>
+ *
+ * @author lostred
+ */
+public class RulesProcessor implements Processor<Object, Result> {
+    /**
+     * 规则引擎
+     */
+    private final RulesEngine rulesEngine;
+    /**
+     * 执行规则的执行器
+     */
+    private final Executor executor;
+    /**
+     * 并行度，即同时执行或等待发布的最大对象数量
+     */
+    private final int parallelism;
+    /**
+     * 是否只发布校验不合格的结果
+     */
+    private final boolean failedOnly;
+    /**
+     * 按对象到达顺序排列的执行任务
+     */
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    /**
+     * 下游请求数量
+     */
+    private final AtomicLong requested = new AtomicLong();
+    /**
+     * 发布循环的进入次数，用于保证同一时刻只有一个线程发布
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicReference<Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Subscriber<? super Result>> downstream = new AtomicReference<>();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile boolean done;
+    private volatile Throwable error;
+    /**
+     * 下游的非法请求，由发布循环通知下游，保证信号串行发出
+     */
+    private final AtomicReference<Throwable> requestError = new AtomicReference<>();
+
+    private RulesProcessor(RulesEngine rulesEngine, Executor executor, int parallelism, boolean failedOnly) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.rulesEngine = Objects.requireNonNull(rulesEngine, "rulesEngine");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.parallelism = parallelism;
+        this.failedOnly = failedOnly;
+    }
+
+    /**
+     * 使用引擎的执行器构建处理器
+     *
+     * @param rulesEngine 规则引擎
+     * @param parallelism 并行度
+     * @param failedOnly  是否只发布校验不合格的结果
+     * @return 处理器
+     */
+    public static RulesProcessor of(RulesEngine rulesEngine, int parallelism, boolean failedOnly) {
+        Executor executor = rulesEngine instanceof AbstractRulesEngine ?
+                ((AbstractRulesEngine) rulesEngine).getExecutor() : ForkJoinPool.commonPool();
+        return new RulesProcessor(rulesEngine, executor, parallelism, failedOnly);
+    }
+
+    /**
+     * 构建处理器
+     *
+     * @param rulesEngine 规则引擎
+     * @param executor    执行规则的执行器
+     * @param parallelism 并行度
+     * @param failedOnly  是否只发布校验不合格的结果
+     * @return 处理器
+     */
+    public static RulesProcessor of(RulesEngine rulesEngine, Executor executor, int parallelism, boolean failedOnly) {
+        return new RulesProcessor(rulesEngine, executor, parallelism, failedOnly);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Result> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!this.downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("RulesProcessor allows only a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    requestError.compareAndSet(null, new IllegalArgumentException("request must be positive: " + n));
+                    drain();
+                    return;
+                }
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                if (cancelled.compareAndSet(false, true)) {
+                    cancelUpstream();
+                    drain();
+                }
+            }
+        });
+        this.drain();
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        if (!this.upstream.compareAndSet(null, subscription) || this.cancelled.get()) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(parallelism);
+    }
+
+    @Override
+    public void onNext(Object object) {
+        Objects.requireNonNull(object, "object");
+        if (this.done || this.cancelled.get()) {
+            return;
+        }
+        Task task = new Task();
+        this.tasks.offer(task);
+        CompletableFuture.supplyAsync(() -> rulesEngine.execute(object), executor)
+                .whenComplete((result, throwable) -> {
+                    task.result = result;
+                    task.error = throwable;
+                    task.completed = true;
+                    drain();
+                });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable");
+        this.error = throwable;
+        this.done = true;
+        this.drain();
+    }
+
+    @Override
+    public void onComplete() {
+        this.done = true;
+        this.drain();
+    }
+
+    /**
+     * 按顺序发布已完成的结果，直到下游请求数量耗尽或遇到未完成的任务
+     */
+    private void drain() {
+        if (this.wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Subscriber<? super Result> subscriber = this.downstream.get();
+            if (this.cancelled.get()) {
+                this.tasks.clear();
+                return;
+            }
+            if (this.requestError.get() != null) {
+                this.fail(this.requestError.get());
+                return;
+            }
+            if (subscriber != null) {
+                long r = this.requested.get();
+                long emitted = 0;
+                while (true) {
+                    if (this.cancelled.get()) {
+                        this.tasks.clear();
+                        return;
+                    }
+                    if (this.requestError.get() != null) {
+                        this.fail(this.requestError.get());
+                        return;
+                    }
+                    Task task = this.tasks.peek();
+                    if (task == null) {
+                        if (this.done) {
+                            this.cancelled.set(true);
+                            Throwable throwable = this.error;
+                            if (throwable != null) {
+                                subscriber.onError(throwable);
+                            } else {
+                                subscriber.onComplete();
+                            }
+                            return;
+                        }
+                        break;
+                    }
+                    if (!task.completed) {
+                        break;
+                    }
+                    if (task.error != null) {
+                        this.fail(task.error);
+                        return;
+                    }
+                    if (this.failedOnly && Grade.QUALIFIED.equals(task.result.getGrade())) {
+                        this.tasks.poll();
+                        this.requestUpstream();
+                        continue;
+                    }
+                    if (emitted == r) {
+                        break;
+                    }
+                    this.tasks.poll();
+                    subscriber.onNext(task.result);
+                    emitted++;
+                    this.requestUpstream();
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+            }
+            missed = this.wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * 任务离开队列后向上游请求下一个对象
+     */
+    private void requestUpstream() {
+        Subscription subscription = this.upstream.get();
+        if (subscription != null && !this.done) {
+            subscription.request(1);
+        }
+    }
+
+    private void cancelUpstream() {
+        Subscription subscription = this.upstream.get();
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * 以异常结束处理，取消上游并通知下游，只在发布循环中调用
+     *
+     * @param throwable 异常
+     */
+    private void fail(Throwable throwable) {
+        if (this.cancelled.compareAndSet(false, true)) {
+            this.cancelUpstream();
+            this.tasks.clear();
+            Subscriber<? super Result> subscriber = this.downstream.get();
+            if (subscriber != null) {
+                subscriber.onError(throwable instanceof CompletionException &&
+                        throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+        }
+    }
+
+    /**
+     * 单个对象的执行任务
+     */
+    private static class Task {
+        private volatile boolean completed;
+        private Result result;
+        private Throwable error;
+    }
+
+    /**
+     * 用于拒绝订阅者的空订阅
+     */
+    private enum EmptySubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
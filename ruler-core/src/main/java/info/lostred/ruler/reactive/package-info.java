@@ -0,0 +1,7 @@
+/**
+ * <h2>响应式流包</h2>
+ * <p>基于reactive-streams规范的规则引擎适配器，需要在项目中引入reactive-streams依赖</p>
+ *
+ * @see info.lostred.ruler.reactive.RulesProcessor
+ */
+package info.lostred.ruler.reactive;
@@ -1,16 +1,21 @@
 package info.lostred.ruler.rule;
 
+import info.lostred.ruler.compiler.CompiledRule;
+import info.lostred.ruler.compiler.RuleCompiler;
+import info.lostred.ruler.constant.CompileStatus;
 import info.lostred.ruler.core.Collector;
 import info.lostred.ruler.core.Judgement;
 import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.expression.CompilableExpression;
+import info.lostred.ruler.expression.PreparedExpressions;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.ExpressionParser;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static info.lostred.ruler.constant.SpELConstants.INDEX;
-import static info.lostred.ruler.constant.SpELConstants.INDEX_LABEL;
+import static info.lostred.ruler.constant.SpELConstants.INDEX_KEY;
 
 /**
  * 抽象规则
@@ -22,6 +27,22 @@ public class AbstractRule implements Judgement, Collector {
      * 规则定义
      */
     protected final RuleDefinition ruleDefinition;
+    /**
+     * 预解析的表达式
+     */
+    private volatile PreparedExpressions expressions;
+    /**
+     * 规则编译器，为null时不编译
+     */
+    private volatile RuleCompiler ruleCompiler;
+    /**
+     * 根对象类型与编译后的规则的映射，每种根对象类型只编译一次
+     */
+    private final Map<Class<?>, CompiledRule> compiledRules = new ConcurrentHashMap<>();
+    /**
+     * 编译后的规则中未编译的表达式的解释执行器
+     */
+    private final CompiledRule.Interpreter interpreter = new Interpreter();
 
     public AbstractRule(RuleDefinition ruleDefinition) {
         this.ruleDefinition = ruleDefinition;
@@ -31,32 +52,147 @@ public class AbstractRule implements Judgement, Collector {
         return ruleDefinition;
     }
 
+    public RuleCompiler getRuleCompiler() {
+        return ruleCompiler;
+    }
+
+    /**
+     * 设置规则编译器，已编译的规则将被丢弃
+     *
+     * @param ruleCompiler 规则编译器，为null时不编译
+     */
+    public void setRuleCompiler(RuleCompiler ruleCompiler) {
+        this.ruleCompiler = ruleCompiler;
+        this.compiledRules.clear();
+    }
+
+    /**
+     * 获取参数对应的编译后的规则
+     * <p>按参数类型缓存，每种类型首次执行时编译一次，并发执行时不会重复编译。规则定义的表达式变化时丢弃所有已编译的规则</p>
+     *
+     * @param object 参数
+     * @return 编译后的规则，未设置规则编译器时返回null
+     */
+    public CompiledRule getCompiledRule(Object object) {
+        RuleCompiler ruleCompiler = this.ruleCompiler;
+        if (ruleCompiler == null || object == null) {
+            return null;
+        }
+        CompiledRule compiledRule = this.compiledRules.get(object.getClass());
+        if (compiledRule != null && compiledRule.isCompiledFrom(ruleDefinition)) {
+            return compiledRule;
+        }
+        if (compiledRule != null) {
+            this.compiledRules.clear();
+        }
+        return this.compiledRules.computeIfAbsent(object.getClass(),
+                type -> ruleCompiler.compile(ruleDefinition, type, interpreter));
+    }
+
+    /**
+     * 预解析规则定义中的表达式
+     * <p>规则定义的表达式未变化时直接返回已预解析的表达式</p>
+     *
+     * @param parser 表达式解析器
+     * @return 预解析的表达式
+     */
+    public PreparedExpressions prepare(ExpressionParser parser) {
+        PreparedExpressions expressions = this.expressions;
+        if (expressions == null || !expressions.isPreparedFrom(ruleDefinition)) {
+            expressions = PreparedExpressions.of(ruleDefinition, parser);
+            this.expressions = expressions;
+        }
+        return expressions;
+    }
+
+    /**
+     * 获取规则表达式的编译状态
+     *
+     * @return 编译状态，存在所有表达式都已编译为字节码的参数类型时为已编译，否则为表达式的编译状态，
+     * 表达式未预解析时为解释执行。共享前置条件的规则可能从不计算自己的前置条件表达式，
+     * 因此不以其他参数类型(如Map与JsonNode)解释执行的表达式状态覆盖已编译的参数类型
+     */
+    public CompileStatus getCompileStatus() {
+        if (this.compiledRules.values().stream().anyMatch(CompiledRule::isComplete)) {
+            return CompileStatus.COMPILED;
+        }
+        PreparedExpressions expressions = this.expressions;
+        return expressions == null ? CompileStatus.INTERPRETED : expressions.getCompileStatus();
+    }
+
     @Override
     public boolean supports(EvaluationContext context, ExpressionParser parser, Object object) {
-        String conditionExp = ruleDefinition.getConditionExp();
-        Boolean flag = parser.parseExpression(conditionExp).getValue(context, Boolean.class);
-        return Boolean.TRUE.equals(flag);
+        CompiledRule compiledRule = this.getCompiledRule(object);
+        if (compiledRule != null) {
+            return compiledRule.supports(context, parser, object);
+        }
+        return this.interpreter.condition(context, parser, object);
     }
 
     @Override
     public boolean judge(EvaluationContext context, ExpressionParser parser, Object object) {
-        String predicateExp = ruleDefinition.getPredicateExp();
-        Boolean flag = parser.parseExpression(predicateExp).getValue(context, Boolean.class);
-        return Boolean.TRUE.equals(flag);
+        CompiledRule compiledRule = this.getCompiledRule(object);
+        if (compiledRule != null) {
+            return compiledRule.judge(context, parser, object);
+        }
+        return this.interpreter.predicate(context, parser, object);
     }
 
     @Override
     public Map<String, Object> collectMappings(EvaluationContext context, ExpressionParser parser, Object object) {
-        Map<String, Object> map = new HashMap<>();
-        String parameterExp = ruleDefinition.getParameterExp();
-        Object value = parser.parseExpression(parameterExp).getValue(context);
-        if (parameterExp.contains(INDEX_LABEL)) {
-            Object index = parser.parseExpression(INDEX).getValue(context);
-            assert index != null;
-            map.put(parameterExp.replace(INDEX, index.toString()), value);
-        } else {
-            map.put(parameterExp, value);
-        }
-        return map;
+        PreparedExpressions expressions = this.prepare(parser);
+        if (expressions.isIndexed()) {
+            Object value = this.interpreter.parameter(context, parser, object);
+            return Collections.singletonMap(expressions.getFieldName(context.lookupVariable(INDEX_KEY)), value);
+        }
+        CompiledRule compiledRule = this.getCompiledRule(object);
+        if (compiledRule != null) {
+            return compiledRule.collectMappings(context, parser, object);
+        }
+        return Collections.singletonMap(expressions.getFieldName(null), this.interpreter.parameter(context, parser, object));
+    }
+
+    /**
+     * 获取表达式的值，表达式未能预解析时由表达式解析器解析
+     *
+     * @param context           评估上下文
+     * @param parser            表达式解析器
+     * @param expression        预解析的表达式
+     * @param expressionString  表达式字符串
+     * @param desiredResultType 期望的值类型
+     * @param <T>               值类型
+     * @return 表达式的值
+     */
+    private <T> T getValue(EvaluationContext context, ExpressionParser parser, CompilableExpression expression,
+                           String expressionString, Class<T> desiredResultType) {
+        if (expression != null) {
+            return expression.getValue(context, desiredResultType);
+        }
+        return parser.parseExpression(expressionString).getValue(context, desiredResultType);
+    }
+
+    /**
+     * 以SpEL解释执行规则定义中的表达式
+     */
+    private class Interpreter implements CompiledRule.Interpreter {
+        @Override
+        public boolean condition(EvaluationContext context, ExpressionParser parser, Object root) {
+            CompilableExpression expression = prepare(parser).getConditionExpression();
+            Boolean flag = getValue(context, parser, expression, ruleDefinition.getConditionExp(), Boolean.class);
+            return Boolean.TRUE.equals(flag);
+        }
+
+        @Override
+        public boolean predicate(EvaluationContext context, ExpressionParser parser, Object root) {
+            CompilableExpression expression = prepare(parser).getPredicateExpression();
+            Boolean flag = getValue(context, parser, expression, ruleDefinition.getPredicateExp(), Boolean.class);
+            return Boolean.TRUE.equals(flag);
+        }
+
+        @Override
+        public Object parameter(EvaluationContext context, ExpressionParser parser, Object root) {
+            CompilableExpression expression = prepare(parser).getParameterExpression();
+            return getValue(context, parser, expression, ruleDefinition.getParameterExp(), Object.class);
+        }
     }
 }
@@ -1,11 +1,15 @@
 package info.lostred.ruler.util;
 
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.JarURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.jar.JarEntry;
 import java.util.logging.Logger;
 
@@ -16,6 +20,128 @@ import java.util.logging.Logger;
  */
 public final class PackageScanUtils {
     private static final Logger logger = Logger.getLogger(PackageScanUtils.class.getName());
+    /**
+     * 规则类索引文件，每行一个全限定类名
+     */
+    public static final String RULES_INDEX = "META-INF/ruler/rules.idx";
+    /**
+     * 领域模型类索引文件，每行格式为"包扫描路径=全限定类名"
+     */
+    public static final String DOMAINS_INDEX = "META-INF/ruler/domains.idx";
+    /**
+     * 忽略索引文件的系统属性，值为true时总是扫描类路径
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "ruler.index.ignore";
+
+    /**
+     * 找到包扫描路径下的所有规则类对象集合
+     * <p>按类路径根目录(目录或jar)分别处理：根目录的规则类索引中有该包下的类时读取索引，否则扫描该根目录。
+     * 索引文件在一次调用中只读取一次</p>
+     *
+     * @param scanBasePackages 包扫描路径
+     * @return 类对象集合
+     */
+    public static Set<Class<?>> getRuleClasses(String... scanBasePackages) {
+        return getIndexedClasses(RULES_INDEX, scanBasePackages,
+                (entry, packageName) -> entry.startsWith(packageName + ".") ? entry : null);
+    }
+
+    /**
+     * 找到包扫描路径下的所有领域模型类对象集合
+     * <p>按类路径根目录(目录或jar)分别处理：根目录的领域模型类索引中有该包扫描路径时读取索引，否则扫描该根目录。
+     * 索引文件在一次调用中只读取一次</p>
+     *
+     * @param scanBasePackages 包扫描路径
+     * @return 类对象集合
+     */
+    public static Set<Class<?>> getDomainClasses(String... scanBasePackages) {
+        return getIndexedClasses(DOMAINS_INDEX, scanBasePackages,
+                (entry, packageName) -> entry.startsWith(packageName + "=") ?
+                        entry.substring(packageName.length() + 1) : null);
+    }
+
+    /**
+     * 根据索引找到包扫描路径下的类对象集合，没有索引的类路径根目录被扫描
+     *
+     * @param location         索引文件路径
+     * @param scanBasePackages 包扫描路径
+     * @param matcher          从索引条目中取出包扫描路径下的全限定类名，不属于该包扫描路径时返回null
+     * @return 类对象集合
+     */
+    private static Set<Class<?>> getIndexedClasses(String location, String[] scanBasePackages,
+                                                   BiFunction<String, String, String> matcher) {
+        Map<String, List<String>> index = readIndex(location);
+        Set<Class<?>> classes = new HashSet<>();
+        for (String scanBasePackage : scanBasePackages) {
+            String relativePath = scanBasePackage.replaceAll("\\.", "/");
+            for (URL url : getResources(relativePath)) {
+                List<String> entries = index.getOrDefault(getRoot(url.toString(), relativePath),
+                        Collections.emptyList());
+                List<String> classNames = new ArrayList<>();
+                for (String entry : entries) {
+                    String className = matcher.apply(entry, scanBasePackage);
+                    if (className != null) {
+                        classNames.add(className);
+                    }
+                }
+                if (classNames.isEmpty()) {
+                    scan(url, relativePath, classes);
+                } else {
+                    classNames.forEach(className -> loadClass(className).ifPresent(classes::add));
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * 读取类路径下所有同名索引文件的内容
+     *
+     * @param location 索引文件路径
+     * @return 类路径根目录与索引条目的映射，忽略索引时为空
+     */
+    private static Map<String, List<String>> readIndex(String location) {
+        Map<String, List<String>> index = new HashMap<>();
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return index;
+        }
+        for (URL url : getResources(location)) {
+            List<String> entries = index.computeIfAbsent(getRoot(url.toString(), location), k -> new ArrayList<>());
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        entries.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 获取资源所在的类路径根目录
+     *
+     * @param url          资源地址
+     * @param relativePath 资源相对路径
+     * @return 根目录地址，无法确定时返回资源地址
+     */
+    private static String getRoot(String url, String relativePath) {
+        String path = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        return path.endsWith(relativePath) ? path.substring(0, path.length() - relativePath.length()) : url;
+    }
+
+    private static List<URL> getResources(String relativePath) {
+        try {
+            return Collections.list(Thread.currentThread().getContextClassLoader().getResources(relativePath));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     /**
      * 找到包扫描路径下的所有类对象集合
@@ -26,39 +152,48 @@ public final class PackageScanUtils {
     public static Set<Class<?>> getClasses(String scanBasePackage) {
         Set<Class<?>> classes = new HashSet<>();
         String relativePath = scanBasePackage.replaceAll("\\.", "/");
+        for (URL url : getResources(relativePath)) {
+            scan(url, relativePath, classes);
+        }
+        return classes;
+    }
+
+    /**
+     * 扫描一个类路径根目录下包扫描路径中的类
+     *
+     * @param url          包扫描路径在根目录中的地址
+     * @param relativePath 包扫描文件夹相对路径
+     * @param classes      类对象集合
+     */
+    private static void scan(URL url, String relativePath, Set<Class<?>> classes) {
         try {
-            Enumeration<URL> enumeration = Thread.currentThread().getContextClassLoader().getResources(relativePath);
-            while (enumeration.hasMoreElements()) {
-                URL url = enumeration.nextElement();
+            if ("file".equals(url.getProtocol())) {
                 List<File> files = new ArrayList<>();
-                if ("file".equals(url.getProtocol())) {
-                    collectFiles(new File(url.getFile()), files);
-                    for (File file : files) {
-                        String absolutePath = file.getAbsolutePath().replaceAll("\\\\", "/");
+                collectFiles(new File(url.getFile()), files);
+                for (File file : files) {
+                    String absolutePath = file.getAbsolutePath().replaceAll("\\\\", "/");
+                    if (absolutePath.lastIndexOf(relativePath) != -1) {
+                        String className = getClassName(absolutePath, relativePath);
+                        loadClass(className).ifPresent(classes::add);
+                    }
+                }
+            } else if ("jar".equals(url.getProtocol())) {
+                JarURLConnection urlConnection = (JarURLConnection) url.openConnection();
+                Enumeration<JarEntry> entries = urlConnection.getJarFile().entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(".class")) {
+                        String absolutePath = entry.getName().replaceAll("\\\\", "/");
                         if (absolutePath.lastIndexOf(relativePath) != -1) {
                             String className = getClassName(absolutePath, relativePath);
                             loadClass(className).ifPresent(classes::add);
                         }
                     }
-                } else if ("jar".equals(url.getProtocol())) {
-                    JarURLConnection urlConnection = (JarURLConnection) url.openConnection();
-                    Enumeration<JarEntry> entries = urlConnection.getJarFile().entries();
-                    while (entries.hasMoreElements()) {
-                        JarEntry entry = entries.nextElement();
-                        if (entry.getName().endsWith(".class")) {
-                            String absolutePath = entry.getName().replaceAll("\\\\", "/");
-                            if (absolutePath.lastIndexOf(relativePath) != -1) {
-                                String className = getClassName(absolutePath, relativePath);
-                                loadClass(className).ifPresent(classes::add);
-                            }
-                        }
-                    }
                 }
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return classes;
     }
 
     /**
@@ -9,4 +9,55 @@ public final class SpELUtils {
     public static String beanLabel(String beanName) {
         return "@" + beanName;
     }
+
+    /**
+     * 规范化表达式字符串，用于判断两个表达式是否相同
+     * <p>字符串字面量之外的空白被去除，只在相邻字符可能合并为一个记号时(两个标识符字符或两个运算符字符)保留一个空格</p>
+     *
+     * @param expressionString 表达式字符串
+     * @return 规范化后的表达式字符串
+     */
+    public static String normalize(String expressionString) {
+        StringBuilder builder = new StringBuilder(expressionString.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < expressionString.length(); i++) {
+            char c = expressionString.charAt(i);
+            if (quote != 0) {
+                builder.append(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = builder.length() > 0;
+            } else {
+                if (pendingSpace && needsSpace(builder.charAt(builder.length() - 1), c)) {
+                    builder.append(' ');
+                }
+                pendingSpace = false;
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean needsSpace(char previous, char c) {
+        boolean word = isWordChar(c);
+        if (word != isWordChar(previous)) {
+            return false;
+        }
+        return word || isOperatorChar(previous) && isOperatorChar(c);
+    }
+
+    private static boolean isOperatorChar(char c) {
+        return "+-*/%<>=!&|^?:.".indexOf(c) >= 0;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@'
+                || c == '\'' || c == '"';
+    }
 }
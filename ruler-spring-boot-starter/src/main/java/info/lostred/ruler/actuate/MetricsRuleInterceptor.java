@@ -0,0 +1,159 @@
+package info.lostred.ruler.actuate;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.Result;
+import info.lostred.ruler.engine.RulesEngine;
+import info.lostred.ruler.interceptor.RuleInterceptor;
+import info.lostred.ruler.rule.AbstractRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录Micrometer指标的规则拦截器
+ * <p>每个规则引擎使用一个实例，指标以业务类型与规则编号为标签，规则的指标在首次执行时注册并缓存</p>
+ *
+ * @author lostred
+ */
+public class MetricsRuleInterceptor implements RuleInterceptor {
+    public static final String ENGINE_EXECUTE = "ruler.engine.execute";
+    public static final String ENGINE_EVALUATE = "ruler.engine.evaluate";
+    public static final String ENGINE_RESULTS = "ruler.engine.results";
+    public static final String RULE_SUPPORTS = "ruler.rule.supports";
+    public static final String RULE_JUDGE = "ruler.rule.judge";
+    public static final String RULE_VIOLATIONS = "ruler.rule.violations";
+    public static final String BUSINESS_TYPE_TAG = "business.type";
+    public static final String RULE_TAG = "rule";
+    public static final String GRADE_TAG = "grade";
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer executeTimer;
+    private final Timer evaluateTimer;
+    private final Map<Grade, Counter> gradeCounters = new EnumMap<>(Grade.class);
+    /**
+     * 规则编号与规则指标的映射
+     */
+    private final Map<String, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+
+    public MetricsRuleInterceptor(MeterRegistry registry, String businessType) {
+        this.registry = registry;
+        this.tags = Tags.of(BUSINESS_TYPE_TAG, businessType);
+        this.executeTimer = Timer.builder(ENGINE_EXECUTE)
+                .description("规则引擎对单个对象的执行耗时")
+                .tags(tags)
+                .register(registry);
+        this.evaluateTimer = Timer.builder(ENGINE_EVALUATE)
+                .description("规则引擎对单个对象的评估耗时")
+                .tags(tags)
+                .register(registry);
+        for (Grade grade : Grade.values()) {
+            this.gradeCounters.put(grade, Counter.builder(ENGINE_RESULTS)
+                    .description("规则引擎执行结果的等级分布")
+                    .tags(tags)
+                    .tag(GRADE_TAG, grade.name())
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public void afterSupports(AbstractRule rule, Object object, boolean supported, long elapsedNanos) {
+        this.getRuleMeters(rule).supports.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void afterJudge(AbstractRule rule, Object object, boolean illegal, long elapsedNanos) {
+        RuleMeters meters = this.getRuleMeters(rule);
+        meters.judge.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (illegal) {
+            meters.violations.increment();
+        }
+    }
+
+    @Override
+    public void afterExecute(RulesEngine rulesEngine, Object object, Result result, long elapsedNanos) {
+        this.executeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter counter = this.gradeCounters.get(result.getGrade());
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void afterEvaluate(RulesEngine rulesEngine, Object object, boolean illegal, long elapsedNanos) {
+        this.evaluateTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private RuleMeters getRuleMeters(AbstractRule rule) {
+        String ruleCode = rule.getRuleDefinition().getRuleCode();
+        RuleMeters meters = this.ruleMeters.get(ruleCode);
+        if (meters == null) {
+            meters = this.ruleMeters.computeIfAbsent(ruleCode, key -> new RuleMeters(registry, tags.and(RULE_TAG, key)));
+        }
+        return meters;
+    }
+
+    /**
+     * 获取规则的指标
+     *
+     * @param ruleCode 规则编号
+     * @return 规则的指标，规则未执行过时返回null
+     */
+    public RuleMeters getRuleMeters(String ruleCode) {
+        return this.ruleMeters.get(ruleCode);
+    }
+
+    public Timer getExecuteTimer() {
+        return executeTimer;
+    }
+
+    public Timer getEvaluateTimer() {
+        return evaluateTimer;
+    }
+
+    public Map<Grade, Counter> getGradeCounters() {
+        return gradeCounters;
+    }
+
+    /**
+     * 单条规则的指标
+     */
+    public static class RuleMeters {
+        private final Timer supports;
+        private final Timer judge;
+        private final Counter violations;
+
+        RuleMeters(MeterRegistry registry, Tags tags) {
+            this.supports = Timer.builder(RULE_SUPPORTS)
+                    .description("规则前置条件的耗时")
+                    .tags(tags)
+                    .register(registry);
+            this.judge = Timer.builder(RULE_JUDGE)
+                    .description("规则断定的耗时")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            this.violations = Counter.builder(RULE_VIOLATIONS)
+                    .description("规则违规的次数")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        public Timer getSupports() {
+            return supports;
+        }
+
+        public Timer getJudge() {
+            return judge;
+        }
+
+        public Counter getViolations() {
+            return violations;
+        }
+    }
+}
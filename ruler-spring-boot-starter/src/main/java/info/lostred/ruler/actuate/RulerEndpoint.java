@@ -0,0 +1,213 @@
+package info.lostred.ruler.actuate;
+
+import info.lostred.ruler.constant.Grade;
+import info.lostred.ruler.domain.RuleDefinition;
+import info.lostred.ruler.engine.AbstractRulesEngine;
+import info.lostred.ruler.engine.RulesEngine;
+import info.lostred.ruler.factory.RulesEngineFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ruler端点
+ * <p>列出所有规则引擎的吞吐量、结果等级分布，以及每条规则的断定耗时分位数与违规率，
+ * 指标由注册在引擎上的{@link MetricsRuleInterceptor}记录</p>
+ *
+ * @author lostred
+ */
+@Endpoint(id = "ruler")
+public class RulerEndpoint {
+    private final RulesEngineFactory rulesEngineFactory;
+
+    public RulerEndpoint(RulesEngineFactory rulesEngineFactory) {
+        this.rulesEngineFactory = rulesEngineFactory;
+    }
+
+    @ReadOperation
+    public Map<String, EngineDescriptor> engines() {
+        Map<String, EngineDescriptor> engines = new LinkedHashMap<>();
+        for (RulesEngine rulesEngine : rulesEngineFactory.getAllEngines()) {
+            engines.put(rulesEngine.getBusinessType(), describe(rulesEngine));
+        }
+        return engines;
+    }
+
+    @ReadOperation
+    public EngineDescriptor engine(@Selector String businessType) {
+        RulesEngine rulesEngine = rulesEngineFactory.getEngine(businessType);
+        return rulesEngine == null ? null : describe(rulesEngine);
+    }
+
+    private static EngineDescriptor describe(RulesEngine rulesEngine) {
+        MetricsRuleInterceptor interceptor = getInterceptor(rulesEngine);
+        List<RuleDescriptor> rules = new ArrayList<>();
+        for (RuleDefinition ruleDefinition : rulesEngine.getRuleDefinitions()) {
+            MetricsRuleInterceptor.RuleMeters meters = interceptor == null ? null :
+                    interceptor.getRuleMeters(ruleDefinition.getRuleCode());
+            rules.add(new RuleDescriptor(ruleDefinition, meters));
+        }
+        rules.sort((o1, o2) -> Double.compare(o2.p99, o1.p99));
+        return new EngineDescriptor(rulesEngine, interceptor, rules);
+    }
+
+    private static MetricsRuleInterceptor getInterceptor(RulesEngine rulesEngine) {
+        if (rulesEngine instanceof AbstractRulesEngine) {
+            return ((AbstractRulesEngine) rulesEngine).getInterceptors().stream()
+                    .filter(MetricsRuleInterceptor.class::isInstance)
+                    .map(MetricsRuleInterceptor.class::cast)
+                    .findFirst()
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    /**
+     * 规则引擎的描述
+     */
+    public static final class EngineDescriptor {
+        private final String engineType;
+        private final boolean instrumented;
+        private final long executions;
+        private final double executeMeanMillis;
+        private final long evaluations;
+        private final double evaluateMeanMillis;
+        private final Map<String, Long> grades = new LinkedHashMap<>();
+        private final List<RuleDescriptor> rules;
+
+        private EngineDescriptor(RulesEngine rulesEngine, MetricsRuleInterceptor interceptor,
+                                 List<RuleDescriptor> rules) {
+            this.engineType = rulesEngine.getClass().getSimpleName();
+            this.instrumented = interceptor != null;
+            this.rules = rules;
+            if (interceptor == null) {
+                this.executions = 0;
+                this.executeMeanMillis = 0;
+                this.evaluations = 0;
+                this.evaluateMeanMillis = 0;
+                return;
+            }
+            Timer executeTimer = interceptor.getExecuteTimer();
+            Timer evaluateTimer = interceptor.getEvaluateTimer();
+            this.executions = executeTimer.count();
+            this.executeMeanMillis = executeTimer.mean(TimeUnit.MILLISECONDS);
+            this.evaluations = evaluateTimer.count();
+            this.evaluateMeanMillis = evaluateTimer.mean(TimeUnit.MILLISECONDS);
+            for (Map.Entry<Grade, Counter> entry : interceptor.getGradeCounters().entrySet()) {
+                this.grades.put(entry.getKey().name(), (long) entry.getValue().count());
+            }
+        }
+
+        public String getEngineType() {
+            return engineType;
+        }
+
+        public boolean isInstrumented() {
+            return instrumented;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public double getExecuteMeanMillis() {
+            return executeMeanMillis;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        public double getEvaluateMeanMillis() {
+            return evaluateMeanMillis;
+        }
+
+        public Map<String, Long> getGrades() {
+            return grades;
+        }
+
+        public List<RuleDescriptor> getRules() {
+            return rules;
+        }
+    }
+
+    /**
+     * 规则的描述，耗时单位为毫秒
+     */
+    public static final class RuleDescriptor {
+        private final String ruleCode;
+        private final String description;
+        private final long judgements;
+        private final long violations;
+        private final double violationRate;
+        private final double meanMillis;
+        private double p50;
+        private double p99;
+
+        private RuleDescriptor(RuleDefinition ruleDefinition, MetricsRuleInterceptor.RuleMeters meters) {
+            this.ruleCode = ruleDefinition.getRuleCode();
+            this.description = ruleDefinition.getDescription();
+            if (meters == null) {
+                this.judgements = 0;
+                this.violations = 0;
+                this.violationRate = 0;
+                this.meanMillis = 0;
+                return;
+            }
+            HistogramSnapshot snapshot = meters.getJudge().takeSnapshot();
+            this.judgements = snapshot.count();
+            this.violations = (long) meters.getViolations().count();
+            this.violationRate = judgements == 0 ? 0 : (double) violations / judgements;
+            this.meanMillis = snapshot.mean(TimeUnit.MILLISECONDS);
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    this.p50 = percentile.value(TimeUnit.MILLISECONDS);
+                } else if (percentile.percentile() == 0.99) {
+                    this.p99 = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        public String getRuleCode() {
+            return ruleCode;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getJudgements() {
+            return judgements;
+        }
+
+        public long getViolations() {
+            return violations;
+        }
+
+        public double getViolationRate() {
+            return violationRate;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+    }
+}
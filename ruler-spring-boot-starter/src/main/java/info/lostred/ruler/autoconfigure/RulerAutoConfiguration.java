@@ -2,13 +2,22 @@ package info.lostred.ruler.autoconfigure;
 
 import info.lostred.ruler.annotation.DomainScan;
 import info.lostred.ruler.annotation.RuleScan;
+import info.lostred.ruler.compiler.RuleCompiler;
 import info.lostred.ruler.constant.EngineType;
+import info.lostred.ruler.engine.AbstractRulesEngine;
 import info.lostred.ruler.engine.CompleteRulesEngine;
 import info.lostred.ruler.engine.IncompleteRulesEngine;
+import info.lostred.ruler.engine.ParallelCompleteRulesEngine;
 import info.lostred.ruler.engine.RulesEngine;
 import info.lostred.ruler.engine.SimpleRulesEngine;
+import info.lostred.ruler.expression.CachingExpressionParser;
 import info.lostred.ruler.factory.*;
+import info.lostred.ruler.interceptor.LoggingRuleInterceptor;
+import info.lostred.ruler.interceptor.RuleInterceptor;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -19,11 +28,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.expression.BeanResolver;
 import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.util.ClassUtils;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,6 +49,11 @@ import java.util.stream.Stream;
  */
 @Configuration(proxyBeanMethods = false)
 public class RulerAutoConfiguration {
+    /**
+     * 规则引擎异步执行使用的执行器的bean名称
+     */
+    public static final String RULER_EXECUTOR_BEAN_NAME = "rulerExecutor";
+
     @Bean
     @ConditionalOnMissingBean
     public DomainFactory domainFactory(DefaultListableBeanFactory defaultListableBeanFactory,
@@ -57,8 +77,11 @@ public class RulerAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public ExpressionParser parser() {
-        return new SpelExpressionParser();
+    public ExpressionParser parser(RulerProperties rulerProperties) {
+        RulerProperties.Spel spel = rulerProperties.getSpel();
+        SpelParserConfiguration configuration = new SpelParserConfiguration(spel.getCompilerMode(),
+                ClassUtils.getDefaultClassLoader());
+        return new CachingExpressionParser(configuration, spel.getCacheCapacity());
     }
 
     /**
@@ -70,16 +93,20 @@ public class RulerAutoConfiguration {
         @Bean
         @ConditionalOnMissingBean
         public RuleFactory ruleFactory(DefaultListableBeanFactory defaultListableBeanFactory,
+                                       ExpressionParser parser,
                                        RulerProperties rulerProperties) {
             Stream<String> stream = getConfigClasses(defaultListableBeanFactory, RuleScan.class).stream()
                     .flatMap(e -> Arrays.stream(e.getAnnotation(RuleScan.class).value()));
-            if (rulerProperties.getRuleScanPackages() == null) {
-                return new DefaultRuleFactory(stream.toArray(String[]::new));
+            String[] ruleScanPackages = rulerProperties.getRuleScanPackages() == null ?
+                    stream.toArray(String[]::new) :
+                    Stream.concat(stream, Arrays.stream(rulerProperties.getRuleScanPackages()))
+                            .distinct()
+                            .toArray(String[]::new);
+            DefaultRuleFactory ruleFactory = new DefaultRuleFactory(parser, ruleScanPackages);
+            if (rulerProperties.getSpel().isRuleCompiler()) {
+                ruleFactory.setRuleCompiler(new RuleCompiler());
             }
-            String[] ruleScanPackages = Stream.concat(stream, Arrays.stream(rulerProperties.getRuleScanPackages()))
-                    .distinct()
-                    .toArray(String[]::new);
-            return new DefaultRuleFactory(ruleScanPackages);
+            return ruleFactory;
         }
     }
 
@@ -96,6 +123,41 @@ public class RulerAutoConfiguration {
             return new DefaultRulesEngineFactory(rulesEngines);
         }
 
+        /**
+         * 所有单实例bean初始化完成后，为未设置执行器的规则引擎设置容器中的rulerExecutor
+         *
+         * @param rulerExecutor      容器中名为rulerExecutor的执行器
+         * @param rulesEngineFactory 规则引擎工厂
+         * @return 设置执行器的初始化回调
+         */
+        @Bean
+        public SmartInitializingSingleton rulerExecutorInitializer(
+                @Qualifier(RULER_EXECUTOR_BEAN_NAME) ObjectProvider<Executor> rulerExecutor,
+                ObjectProvider<RulesEngineFactory> rulesEngineFactory) {
+            return () -> rulerExecutor.ifAvailable(executor -> rulesEngineFactory.ifAvailable(factory -> {
+                for (RulesEngine rulesEngine : factory.getAllEngines()) {
+                    if (rulesEngine instanceof AbstractRulesEngine
+                            && !((AbstractRulesEngine) rulesEngine).isExecutorConfigured()) {
+                        ((AbstractRulesEngine) rulesEngine).setExecutor(executor);
+                    }
+                }
+            }));
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        @ConditionalOnMissingBean(name = RULER_EXECUTOR_BEAN_NAME)
+        @ConditionalOnProperty(value = "ruler.async.virtual-threads", havingValue = "true")
+        public ExecutorService rulerExecutor() {
+            return newVirtualThreadPerTaskExecutor();
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "ruler.rule-logging", havingValue = "true")
+        public LoggingRuleInterceptor loggingRuleInterceptor() {
+            return new LoggingRuleInterceptor();
+        }
+
         @Bean
         @ConditionalOnMissingBean
         @ConditionalOnProperty("ruler.engine-type")
@@ -103,22 +165,59 @@ public class RulerAutoConfiguration {
                                        BeanResolver beanResolver,
                                        ExpressionParser parser,
                                        List<Method> globalFunctions,
-                                       RulerProperties rulerProperties) {
+                                       RulerProperties rulerProperties,
+                                       ObjectProvider<RuleInterceptor> ruleInterceptors,
+                                       ObjectProvider<DomainFactory> domainFactory) {
             String type = rulerProperties.getEngineType().toUpperCase();
             String businessType = rulerProperties.getBusinessType();
+            AbstractRulesEngine rulesEngine;
             if (EngineType.COMPLETE.equals(EngineType.valueOf(type))) {
-                return RulesEngineFactory.builder(ruleFactory,
+                rulesEngine = RulesEngineFactory.builder(ruleFactory,
                         businessType, beanResolver, parser, globalFunctions,
                         CompleteRulesEngine.class).build();
+            } else if (EngineType.PARALLEL_COMPLETE.equals(EngineType.valueOf(type))) {
+                int parallelism = rulerProperties.getParallelism();
+                // 引擎创建的线程池与默认执行器在容器关闭时由推断的销毁方法shutdown关闭
+                rulesEngine = parallelism > 0 ?
+                        new ParallelCompleteRulesEngine(ruleFactory,
+                                businessType, beanResolver, parser, globalFunctions, parallelism) :
+                        new ParallelCompleteRulesEngine(ruleFactory,
+                                businessType, beanResolver, parser, globalFunctions, ForkJoinPool.commonPool());
             } else if (EngineType.INCOMPLETE.equals(EngineType.valueOf(type))) {
-                return RulesEngineFactory.builder(ruleFactory,
+                rulesEngine = RulesEngineFactory.builder(ruleFactory,
                         businessType, beanResolver, parser, globalFunctions,
                         IncompleteRulesEngine.class).build();
             } else {
-                return RulesEngineFactory.builder(ruleFactory,
+                rulesEngine = RulesEngineFactory.builder(ruleFactory,
                         businessType, beanResolver, parser, globalFunctions,
                         SimpleRulesEngine.class).build();
             }
+            ruleInterceptors.orderedStream().forEach(rulesEngine::addInterceptor);
+            rulesEngine.setPropertyCacheEnabled(rulerProperties.getSpel().isPropertyCache());
+            if (rulerProperties.getSpel().isDomainAccessor()) {
+                domainFactory.ifAvailable(rulesEngine::setDomainFactory);
+            }
+            if (rulerProperties.getAdaptiveInterval() > 0) {
+                rulesEngine.setAdaptiveInterval(rulerProperties.getAdaptiveInterval());
+            }
+            return rulesEngine;
+        }
+    }
+
+    /**
+     * 创建每个任务使用一个虚拟线程的执行器，需要JDK21及以上的运行环境
+     *
+     * @return 执行器
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or later, current version is " +
+                    System.getProperty("java.version"), e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
         }
     }
 
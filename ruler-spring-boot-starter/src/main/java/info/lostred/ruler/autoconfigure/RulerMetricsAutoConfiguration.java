@@ -0,0 +1,86 @@
+package info.lostred.ruler.autoconfigure;
+
+import info.lostred.ruler.actuate.MetricsRuleInterceptor;
+import info.lostred.ruler.actuate.RulerEndpoint;
+import info.lostred.ruler.engine.AbstractRulesEngine;
+import info.lostred.ruler.engine.RulesEngine;
+import info.lostred.ruler.factory.RulesEngineFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ruler指标自动配置类
+ * <p>项目中引入Micrometer时，为容器中所有的规则引擎注册记录指标的拦截器；
+ * 引入actuator时，提供列出规则引擎与规则指标的ruler端点</p>
+ *
+ * @author lostred
+ */
+@Configuration(proxyBeanMethods = false)
+@AutoConfigureAfter(RulerAutoConfiguration.class)
+@EnableConfigurationProperties(RulerProperties.class)
+public class RulerMetricsAutoConfiguration {
+    /**
+     * 指标自动配置类
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(value = "ruler.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public static class MetricsAutoConfiguration {
+        /**
+         * 所有单实例bean初始化完成后为规则引擎注册指标拦截器
+         *
+         * @param meterRegistry      指标注册表
+         * @param rulesEngineFactory 规则引擎工厂
+         * @return 注册指标拦截器的初始化回调
+         */
+        @Bean
+        public SmartInitializingSingleton rulerMetricsInitializer(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                  ObjectProvider<RulesEngineFactory> rulesEngineFactory) {
+            return () -> meterRegistry.ifAvailable(registry -> rulesEngineFactory.ifAvailable(factory -> {
+                for (RulesEngine rulesEngine : factory.getAllEngines()) {
+                    if (rulesEngine instanceof AbstractRulesEngine) {
+                        instrument((AbstractRulesEngine) rulesEngine, registry);
+                    }
+                }
+            }));
+        }
+
+        /**
+         * 为规则引擎注册指标拦截器，已注册时不重复注册
+         *
+         * @param rulesEngine 规则引擎
+         * @param registry    指标注册表
+         */
+        public static void instrument(AbstractRulesEngine rulesEngine, MeterRegistry registry) {
+            boolean instrumented = rulesEngine.getInterceptors().stream()
+                    .anyMatch(MetricsRuleInterceptor.class::isInstance);
+            if (!instrumented) {
+                rulesEngine.addInterceptor(new MetricsRuleInterceptor(registry, rulesEngine.getBusinessType()));
+            }
+        }
+    }
+
+    /**
+     * 端点自动配置类
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({MeterRegistry.class, Endpoint.class, ConditionalOnAvailableEndpoint.class})
+    public static class EndpointAutoConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint(endpoint = RulerEndpoint.class)
+        public RulerEndpoint rulerEndpoint(RulesEngineFactory rulesEngineFactory) {
+            return new RulerEndpoint(rulesEngineFactory);
+        }
+    }
+}
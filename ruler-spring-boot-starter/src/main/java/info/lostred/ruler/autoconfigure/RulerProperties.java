@@ -2,7 +2,9 @@ package info.lostred.ruler.autoconfigure;
 
 import info.lostred.ruler.constant.EngineType;
 import info.lostred.ruler.constant.RulerConstants;
+import info.lostred.ruler.expression.CachingExpressionParser;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.expression.spel.SpelCompilerMode;
 
 /**
  * ruler配置类
@@ -15,6 +17,12 @@ public class RulerProperties {
     private String engineType = EngineType.SIMPLE.name();
     private String[] ruleScanPackages;
     private String[] domainScanPackages;
+    private int parallelism;
+    private int adaptiveInterval;
+    private boolean ruleLogging;
+    private final Spel spel = new Spel();
+    private final Async async = new Async();
+    private final Metrics metrics = new Metrics();
 
     public String getBusinessType() {
         return businessType;
@@ -47,4 +55,121 @@ public class RulerProperties {
     public void setDomainScanPackages(String[] domainScanPackages) {
         this.domainScanPackages = domainScanPackages;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getAdaptiveInterval() {
+        return adaptiveInterval;
+    }
+
+    public void setAdaptiveInterval(int adaptiveInterval) {
+        this.adaptiveInterval = adaptiveInterval;
+    }
+
+    public boolean isRuleLogging() {
+        return ruleLogging;
+    }
+
+    public void setRuleLogging(boolean ruleLogging) {
+        this.ruleLogging = ruleLogging;
+    }
+
+    public Spel getSpel() {
+        return spel;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * SpEL配置
+     */
+    public static class Spel {
+        private SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+        private int cacheCapacity = CachingExpressionParser.DEFAULT_CAPACITY;
+        private boolean propertyCache;
+        private boolean ruleCompiler;
+        private boolean domainAccessor = true;
+
+        public SpelCompilerMode getCompilerMode() {
+            return compilerMode;
+        }
+
+        public void setCompilerMode(SpelCompilerMode compilerMode) {
+            this.compilerMode = compilerMode;
+        }
+
+        public int getCacheCapacity() {
+            return cacheCapacity;
+        }
+
+        public void setCacheCapacity(int cacheCapacity) {
+            this.cacheCapacity = cacheCapacity;
+        }
+
+        public boolean isPropertyCache() {
+            return propertyCache;
+        }
+
+        public void setPropertyCache(boolean propertyCache) {
+            this.propertyCache = propertyCache;
+        }
+
+        public boolean isRuleCompiler() {
+            return ruleCompiler;
+        }
+
+        public void setRuleCompiler(boolean ruleCompiler) {
+            this.ruleCompiler = ruleCompiler;
+        }
+
+        public boolean isDomainAccessor() {
+            return domainAccessor;
+        }
+
+        public void setDomainAccessor(boolean domainAccessor) {
+            this.domainAccessor = domainAccessor;
+        }
+    }
+
+    /**
+     * 异步执行配置
+     */
+    public static class Async {
+        private boolean virtualThreads;
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    /**
+     * 指标配置
+     */
+    public static class Metrics {
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
 }